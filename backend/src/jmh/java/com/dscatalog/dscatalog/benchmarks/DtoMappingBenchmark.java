@@ -0,0 +1,58 @@
+package com.dscatalog.dscatalog.benchmarks;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.dto.UserDTO;
+import com.dscatalog.dscatalog.entities.Category;
+import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.entities.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Entity to DTO constructors, one object per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private Product product;
+    private Category category;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product(3);
+        category = Fixtures.category();
+        user = Fixtures.user();
+    }
+
+    @Benchmark
+    public ProductDTO productWithCategories() {
+        return new ProductDTO(product, product.getCategories());
+    }
+
+    @Benchmark
+    public CategoryDTO category() {
+        return new CategoryDTO(category);
+    }
+
+    @Benchmark
+    public UserDTO userWithRoles() {
+        return new UserDTO(user);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dscatalog.dscatalog.benchmarks;
+
+import com.dscatalog.dscatalog.entities.Category;
+import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.entities.Role;
+import com.dscatalog.dscatalog.entities.User;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Detached entities shaped like the seed data: every product sits in one to three of a handful of shared categories.
+ */
+class Fixtures {
+
+    private static final Instant DATE = Instant.parse("2020-07-13T20:50:07.123450Z");
+
+    private static final List<Category> CATEGORIES = List.of(
+            new Category(1L, "Livros"), new Category(2L, "Eletrônicos"), new Category(3L, "Computadores"));
+
+    static Product product(long id) {
+        Product product = new Product(id, "Product " + id,
+                "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.",
+                100.0 + id, "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + id + "-big.jpg", DATE);
+        for (int i = 0; i <= id % CATEGORIES.size(); i++) {
+            product.getCategories().add(CATEGORIES.get(i));
+        }
+        return product;
+    }
+
+    static List<Product> products(int size) {
+        List<Product> list = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            list.add(product(id));
+        }
+        return list;
+    }
+
+    static Category category() {
+        return CATEGORIES.get(1);
+    }
+
+    static User user() {
+        User user = new User(1L, "Alex", "Brown", "alex@gmail.com", "$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG");
+        user.getRoles().add(new Role(1L, "ROLE_OPERATOR"));
+        user.getRoles().add(new Role(2L, "ROLE_ADMIN"));
+        return user;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dscatalog.dscatalog.benchmarks;
+
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The Page.map conversion ProductService.findAllPagedWithCategories applies to every page of entities.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PageMappingBenchmark {
+
+    @Param({"12", "50", "200", "1000"})
+    private int size;
+
+    private Page<Product> page;
+
+    @Setup
+    public void setUp() {
+        page = new PageImpl<>(Fixtures.products(size), PageRequest.of(0, size), 10_000);
+    }
+
+    @Benchmark
+    public Page<ProductDTO> mapPage() {
+        return page.map(x -> new ProductDTO(x, x.getCategories()));
+    }
+}
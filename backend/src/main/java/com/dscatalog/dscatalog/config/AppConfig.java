@@ -1,14 +1,52 @@
 package com.dscatalog.dscatalog.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AppConfig.class);
+
+    @Value("${dscatalog.security.bcrypt.target-time}")
+    private Duration bcryptTargetTime;
+
+    @Value("${dscatalog.security.bcrypt.min-strength}")
+    private int bcryptMinStrength;
+
+    @Value("${dscatalog.security.bcrypt.max-strength}")
+    private int bcryptMaxStrength;
+
+    /*
+     * Uses the highest BCrypt cost whose hash still fits in the target time on this machine, but never less
+     * than the minimum. Existing hashes keep verifying, since every hash carries its own cost.
+     */
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = calibrate();
+        LOG.info("Using BCrypt strength {} for a target hash time of {} ms", strength, bcryptTargetTime.toMillis());
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private int calibrate() {
+        int strength = bcryptMinStrength;
+        while (strength < bcryptMaxStrength) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength + 1);
+            /* the first call also pays for class loading and JIT, so time the second */
+            encoder.encode("calibration");
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            if (System.nanoTime() - start > bcryptTargetTime.toNanos()) {
+                break;
+            }
+            strength++;
+        }
+        return strength;
     }
 }
@@ -0,0 +1,169 @@
+package com.dscatalog.dscatalog.config;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${dscatalog.async.read.pool-size}")
+    private int readPoolSize;
+
+    @Value("${dscatalog.async.read.queue-capacity}")
+    private int readQueueCapacity;
+
+    @Value("${dscatalog.async.write.pool-size}")
+    private int writePoolSize;
+
+    @Value("${dscatalog.async.write.queue-capacity}")
+    private int writeQueueCapacity;
+
+    @Value("${dscatalog.async.hash.pool-size:0}")
+    private int hashPoolSize;
+
+    @Value("${dscatalog.async.hash.queue-capacity}")
+    private int hashQueueCapacity;
+
+    /*
+     * Imports run one at a time; a few more may wait, anything beyond that is rejected with 503.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("product-import-");
+        return executor;
+    }
+
+    /*
+     * Runs streaming responses such as the catalog export. Each export holds a thread for its
+     * whole duration, so the pool bounds the number of concurrent exports.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setTaskDecorator(PrimaryPin::propagate);
+        return executor;
+    }
+
+    /*
+     * Runs the blocking service calls of GET handlers, so Tomcat threads are released while the database works.
+     * Sized for short indexed queries; when the queue is full new requests are rejected with 503
+     * instead of piling up behind slow ones. Tasks keep the read-your-writes pin of the request that submitted them.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor readExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(readPoolSize);
+        executor.setMaxPoolSize(readPoolSize);
+        executor.setQueueCapacity(readQueueCapacity);
+        executor.setThreadNamePrefix("read-");
+        executor.setTaskDecorator(PrimaryPin::propagate);
+        return executor;
+    }
+
+    /*
+     * Writes get their own, smaller pool so a burst of them cannot starve reads of connections.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor writeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(writePoolSize);
+        executor.setMaxPoolSize(writePoolSize);
+        executor.setQueueCapacity(writeQueueCapacity);
+        executor.setThreadNamePrefix("write-");
+        executor.setTaskDecorator(PrimaryPin::propagate);
+        return executor;
+    }
+
+    /*
+     * Password hashing is pure CPU, so the pool defaults to one thread per core; sign-up bursts beyond
+     * its queue are rejected with 503 rather than competing with catalog requests for the processors.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor hashExecutor() {
+        int poolSize = hashPoolSize > 0 ? hashPoolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(hashQueueCapacity);
+        executor.setThreadNamePrefix("hash-");
+        return executor;
+    }
+
+    /*
+     * Runs the change feed relay alone. A single thread keeps the feed sequences in commit order.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler changeFeedScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("change-feed-");
+        return scheduler;
+    }
+
+    /*
+     * Stream heartbeats and the outbox purge, kept off the relay thread.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler changeFeedHousekeeping() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("change-feed-housekeeping-");
+        return scheduler;
+    }
+
+    /*
+     * Writes the queued events to the change streams. Each stream has at most one drain task at a time,
+     * so the queue never holds more tasks than there are streams; a stalled client ties up one thread, not the relay.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor changeFeedSender() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setThreadNamePrefix("change-feed-send-");
+        return executor;
+    }
+
+    /*
+     * Publishes executor.queued, executor.active, executor.pool.size and executor.completed per pool,
+     * tagged with name=read, write, hash, import, mvc-async or change-feed-send.
+     */
+    @Bean
+    public MeterBinder executorMetrics() {
+        return registry -> {
+            bind(registry, readExecutor(), "read");
+            bind(registry, writeExecutor(), "write");
+            bind(registry, hashExecutor(), "hash");
+            bind(registry, importExecutor(), "import");
+            bind(registry, mvcAsyncExecutor(), "mvc-async");
+            bind(registry, changeFeedSender(), "change-feed-send");
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    private static void bind(MeterRegistry registry, ThreadPoolTaskExecutor executor, String name) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.dscatalog.dscatalog.config;
+
+import com.dscatalog.dscatalog.resources.filters.ListingResponseCacheFilter;
+import com.dscatalog.dscatalog.services.TotalCountCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+
+    @Value("${dscatalog.cache.products.spec}")
+    private String productsSpec;
+
+    @Value("${dscatalog.cache.listings.spec}")
+    private String listingsSpec;
+
+    @Value("${dscatalog.cache.counts.spec}")
+    private String countsSpec;
+
+    /*
+     * Puts and evictions are deferred until the surrounding transaction commits,
+     * so a rolled back write can never leave a stale entry behind.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS);
+        cacheManager.setCacheSpecification(productsSpec);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean
+    public ListingResponseCacheFilter listingResponseCacheFilter() {
+        return new ListingResponseCacheFilter(listingsSpec);
+    }
+
+    @Bean
+    public TotalCountCache totalCountCache() {
+        return new TotalCountCache(countsSpec);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dscatalog.dscatalog.config;
+
+import com.dscatalog.dscatalog.datasource.ReadWriteRoutingDataSource;
+import com.dscatalog.dscatalog.resources.filters.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Read replicas, enabled by listing their JDBC URLs in dscatalog.datasource.replicas. The primary keeps the
+ * spring.datasource settings; the replicas share its credentials and get pools of their own, which may start
+ * while a replica is down. Without replicas Boot's single pool is used as before.
+ */
+@Configuration
+@ConditionalOnProperty("dscatalog.datasource.replicas")
+public class DataSourceConfig {
+
+    @Value("${dscatalog.datasource.replicas}")
+    private List<String> replicaUrls;
+
+    @Value("${dscatalog.datasource.replica.pool-size}")
+    private int replicaPoolSize;
+
+    @Value("${dscatalog.datasource.replica.connection-timeout}")
+    private Duration replicaConnectionTimeout;
+
+    @Value("${dscatalog.datasource.replica.retry-after}")
+    private Duration replicaRetryAfter;
+
+    @Value("${dscatalog.datasource.read-your-writes}")
+    private Duration readYourWrites;
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            /* a slow or dead replica is given up on quickly, the read then moves on to the next one */
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, replicaRetryAfter);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+}
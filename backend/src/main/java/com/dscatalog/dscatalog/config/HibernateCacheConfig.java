@@ -0,0 +1,74 @@
+package com.dscatalog.dscatalog.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/*
+ * Hibernate second-level and query cache on Caffeine through JCache. Category, Role and the Product.categories and
+ * User.roles collections are cached; their regions are named in the entity mappings and all created here.
+ * Per-region hit and miss counts are published as hibernate.second.level.cache.requests.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final List<String> ENTITY_REGIONS = List.of("category", "role", "product.categories", "user.roles");
+
+    @Value("${dscatalog.cache.hibernate.maximum-size}")
+    private long maximumSize;
+
+    @Value("${dscatalog.cache.hibernate.expire-after-write}")
+    private Duration expireAfterWrite;
+
+    /*
+     * All regions live on the heap of this instance. Entries expire like the products cache, which bounds how long
+     * a write made by another instance goes unnoticed. The update timestamps region tells Hibernate which cached
+     * query results are stale, so it is never evicted. Each application context gets its own manager.
+     */
+    @Bean
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        URI uri = URI.create("dscatalog:hibernate:" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+
+        CaffeineConfiguration<Object, Object> bounded = new CaffeineConfiguration<>();
+        bounded.setStoreByValue(false);
+        bounded.setMaximumSize(OptionalLong.of(maximumSize));
+        bounded.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        ENTITY_REGIONS.forEach(region -> cacheManager.createCache(region, bounded));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded);
+
+        CaffeineConfiguration<Object, Object> unbounded = new CaffeineConfiguration<>();
+        unbounded.setStoreByValue(false);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            /* every region is created above, so a missing one is a mapping mistake */
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.dscatalog.dscatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Times every public method of the catalog and user services as dscatalog.service, and every repository call
+ * as dscatalog.repository, tagged with class, method, operation (read or write) and exception.
+ * Service methods are reads when they run in a read-only transaction; repository methods are writes when they
+ * save, delete or flush. Percentile histograms are switched on for both in application.properties.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<String, Tags> tags = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.dscatalog.dscatalog.services.ProductService.*(..))"
+            + " || execution(public * com.dscatalog.dscatalog.services.CategoryService.*(..))"
+            + " || execution(public * com.dscatalog.dscatalog.services.UserService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("dscatalog.service", joinPoint);
+    }
+
+    @Around("execution(* *(..)) && bean(*Repository) && this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("dscatalog.repository", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> type = ownType(joinPoint);
+        Tags methodTags = tags.computeIfAbsent(type.getName() + "." + method, key -> Tags.of(
+                "class", type.getSimpleName(),
+                "method", method.getName(),
+                "operation", isRead(method) ? "read" : "write"));
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        }
+        catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        }
+        finally {
+            sample.stop(registry.timer(name, methodTags.and("exception", exception)));
+        }
+    }
+
+    /* repository methods are often declared on Spring Data interfaces, so name the application interface instead */
+    private static Class<?> ownType(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getName().startsWith("com.dscatalog.")) {
+                return type;
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType();
+    }
+
+    private static boolean isRead(Method method) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        if (transactional != null) {
+            return transactional.readOnly();
+        }
+        String name = method.getName();
+        return !(name.startsWith("save") || name.startsWith("delete") || name.startsWith("flush")
+                || name.startsWith("insert") || name.startsWith("update"));
+    }
+}
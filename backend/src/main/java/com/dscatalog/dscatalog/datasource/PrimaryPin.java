@@ -0,0 +1,59 @@
+package com.dscatalog.dscatalog.datasource;
+
+import java.util.function.Supplier;
+
+/*
+ * Marks the current thread as pinned to the primary, so its read-only transactions skip the replicas.
+ * Request threads are pinned by ReadYourWritesFilter; propagate() carries the pin over to the tasks they hand
+ * to the async pools.
+ */
+public final class PrimaryPin {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryPin() {
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    public static void set(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        }
+        else {
+            PINNED.remove();
+        }
+    }
+
+    /* runs the supplier with the current thread pinned, restoring the previous state afterwards */
+    public static <T> T call(Supplier<T> supplier) {
+        if (isPinned()) {
+            return supplier.get();
+        }
+        set(true);
+        try {
+            return supplier.get();
+        }
+        finally {
+            set(false);
+        }
+    }
+
+    /* pinned threads always unpin when done, so a pool thread never carries a pin into an unpinned task */
+    public static Runnable propagate(Runnable task) {
+        if (!isPinned()) {
+            return task;
+        }
+        return () -> {
+            set(true);
+            try {
+                task.run();
+            }
+            finally {
+                set(false);
+            }
+        };
+    }
+}
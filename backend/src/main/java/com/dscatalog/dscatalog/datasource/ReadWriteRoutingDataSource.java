@@ -0,0 +1,212 @@
+package com.dscatalog.dscatalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ * Replicas are taken in turn. One that cannot open a connection is skipped for retryAfter; one whose pool is merely
+ * exhausted stays in rotation and the read moves on to the next. When no replica is left the read falls back to
+ * the primary.
+ * Reads stay on the primary while the current thread is pinned to it (see PrimaryPin): requests of a client that
+ * has just written, and every load that fills a cache shared by all clients, so data a lagging replica has not
+ * caught up on is never cached for everyone. Caches filled inside a transaction that already reads a replica ask
+ * isReplicaRead() and skip storing instead.
+ * Connections are handed out lazily: the transaction manager asks for one before it marks the transaction
+ * read-only, so the pool is only chosen when the first statement runs.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final String REPLICA_READ = ReadWriteRoutingDataSource.class.getName() + ".REPLICA_READ";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long retryAfter;
+
+    private final AtomicInteger next = new AtomicInteger();
+    /* System.nanoTime() until which each replica is skipped */
+    private final AtomicLongArray downUntil;
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final List<AtomicLong> replicaConnections = new ArrayList<>();
+    private final AtomicLong failovers = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfter = retryAfter.toNanos();
+        long now = System.nanoTime();
+        this.downUntil = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            downUntil.set(i, now);
+            replicaConnections.add(new AtomicLong());
+        }
+        setTargetDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return route();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                throw new SQLFeatureNotSupportedException("Connections are opened with the credentials of each pool");
+            }
+        });
+    }
+
+    /* true when the current transaction reads from a replica, which may not have seen the latest writes yet */
+    public static boolean isReplicaRead() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    /* the physical connection for the current transaction */
+    Connection route() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PrimaryPin.isPinned()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                markReplicaRead();
+                return connection;
+            }
+        }
+        primaryConnections.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    /*
+     * Connections handed out per pool under dscatalog.datasource.connections, tagged target=primary or replica-N.
+     * Boot only instruments pools it can unwrap from the DataSource bean, so the hikaricp.* meters of each pool,
+     * tagged pool=primary or replica-N, are registered here.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindPool(registry, primary);
+        replicas.forEach(x -> bindPool(registry, x));
+        FunctionCounter.builder("dscatalog.datasource.connections", primaryConnections, AtomicLong::get)
+                .tag("target", "primary")
+                .register(registry);
+        for (int i = 0; i < replicas.size(); i++) {
+            FunctionCounter.builder("dscatalog.datasource.connections", replicaConnections.get(i), AtomicLong::get)
+                    .tag("target", "replica-" + i)
+                    .register(registry);
+        }
+        FunctionCounter.builder("dscatalog.datasource.replica.failovers", failovers, AtomicLong::get)
+                .description("Read-only transactions sent to the primary because no replica was available")
+                .register(registry);
+        Gauge.builder("dscatalog.datasource.replicas.available", this, x -> x.availableReplicas())
+                .register(registry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private Connection replicaConnection() {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % count;
+            if (System.nanoTime() - downUntil.get(index) < 0) {
+                continue;
+            }
+            try {
+                Connection connection = replicas.get(index).getConnection();
+                replicaConnections.get(index).incrementAndGet();
+                return connection;
+            }
+            catch (SQLException e) {
+                if (isExhausted(replicas.get(index))) {
+                    continue;
+                }
+                LOG.warn("Replica {} is unavailable, skipping it for {} s: {}", index,
+                        Duration.ofNanos(retryAfter).toSeconds(), e.getMessage());
+                downUntil.set(index, System.nanoTime() + retryAfter);
+            }
+        }
+        if (count > 0) {
+            failovers.incrementAndGet();
+        }
+        return null;
+    }
+
+    private static void markReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isReplicaRead()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+    }
+
+    /*
+     * A pool that timed out while holding all the connections it may open reached the replica just fine and is
+     * busy, not down. A replica that stops answering loses its connections to Hikari's validation, so it is
+     * marked down on the next failure.
+     */
+    private static boolean isExhausted(DataSource pool) {
+        if (!(pool instanceof HikariDataSource)) {
+            return false;
+        }
+        HikariDataSource hikari = (HikariDataSource) pool;
+        HikariPoolMXBean bean = hikari.getHikariPoolMXBean();
+        return bean != null && bean.getTotalConnections() >= hikari.getMaximumPoolSize();
+    }
+
+    private static void bindPool(MeterRegistry registry, DataSource pool) {
+        if (pool instanceof HikariDataSource) {
+            HikariDataSource hikari = (HikariDataSource) pool;
+            if (hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+                hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+        }
+    }
+
+    private int availableReplicas() {
+        long now = System.nanoTime();
+        int available = 0;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (now - downUntil.get(i) >= 0) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
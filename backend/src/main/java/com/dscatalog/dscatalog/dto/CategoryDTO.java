@@ -9,6 +9,7 @@ public class CategoryDTO implements Serializable {
 
     private Long id;
     private String name;
+    private Integer version;
 
     public CategoryDTO() {
     }
@@ -21,6 +22,7 @@ public class CategoryDTO implements Serializable {
     public CategoryDTO(Category entity) {
         this.id = entity.getId();
         this.name = entity.getName();
+        this.version = entity.getVersion();
     }
 
     public Long getId() {
@@ -31,6 +33,14 @@ public class CategoryDTO implements Serializable {
         this.id = id;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
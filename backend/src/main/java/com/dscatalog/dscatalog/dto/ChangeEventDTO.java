@@ -0,0 +1,68 @@
+package com.dscatalog.dscatalog.dto;
+
+import com.dscatalog.dscatalog.entities.OutboxEvent;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+public class ChangeEventDTO implements Serializable {
+    private static final long serialVersionUID = -6021374518835907712L;
+
+    private Long sequence;
+    private String aggregateType;
+    private Long aggregateId;
+    private ChangeType type;
+    private Instant createdAt;
+
+    public ChangeEventDTO() {
+    }
+
+    public ChangeEventDTO(OutboxEvent entity) {
+        this.sequence = entity.getFeedSequence();
+        this.aggregateType = entity.getAggregateType();
+        this.aggregateId = entity.getAggregateId();
+        this.type = entity.getType();
+        this.createdAt = entity.getCreatedAt();
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
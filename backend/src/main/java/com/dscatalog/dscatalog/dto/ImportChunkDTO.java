@@ -0,0 +1,64 @@
+package com.dscatalog.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class ImportChunkDTO implements Serializable {
+    private static final long serialVersionUID = -6093124946531281741L;
+
+    private Integer number;
+    private Long firstRecord;
+    private Long lastRecord;
+    private Integer imported;
+    private String error;
+
+    public ImportChunkDTO() {
+    }
+
+    public ImportChunkDTO(Integer number, Long firstRecord, Long lastRecord, Integer imported, String error) {
+        this.number = number;
+        this.firstRecord = firstRecord;
+        this.lastRecord = lastRecord;
+        this.imported = imported;
+        this.error = error;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    public Long getFirstRecord() {
+        return firstRecord;
+    }
+
+    public void setFirstRecord(Long firstRecord) {
+        this.firstRecord = firstRecord;
+    }
+
+    public Long getLastRecord() {
+        return lastRecord;
+    }
+
+    public void setLastRecord(Long lastRecord) {
+        this.lastRecord = lastRecord;
+    }
+
+    public Integer getImported() {
+        return imported;
+    }
+
+    public void setImported(Integer imported) {
+        this.imported = imported;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
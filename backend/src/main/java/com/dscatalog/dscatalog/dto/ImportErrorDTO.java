@@ -0,0 +1,34 @@
+package com.dscatalog.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class ImportErrorDTO implements Serializable {
+    private static final long serialVersionUID = 2260911934725107634L;
+
+    private Long record;
+    private String message;
+
+    public ImportErrorDTO() {
+    }
+
+    public ImportErrorDTO(Long record, String message) {
+        this.record = record;
+        this.message = message;
+    }
+
+    public Long getRecord() {
+        return record;
+    }
+
+    public void setRecord(Long record) {
+        this.record = record;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,117 @@
+package com.dscatalog.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportJobDTO implements Serializable {
+    private static final long serialVersionUID = 5403717233960012466L;
+
+    private String id;
+    private String format;
+    private ImportStatus status;
+    private Long records;
+    private Long imported;
+    private Long failed;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    private List<ImportChunkDTO> chunks = new ArrayList<>();
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+
+    public ImportJobDTO() {
+    }
+
+    public ImportJobDTO(String id, String format, ImportStatus status, Long records, Long imported, Long failed,
+                        Instant createdAt, Instant finishedAt) {
+        this.id = id;
+        this.format = format;
+        this.status = status;
+        this.records = records;
+        this.imported = imported;
+        this.failed = failed;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+
+    public Long getRecords() {
+        return records;
+    }
+
+    public void setRecords(Long records) {
+        this.records = records;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public List<ImportChunkDTO> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<ImportChunkDTO> chunks) {
+        this.chunks = chunks;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
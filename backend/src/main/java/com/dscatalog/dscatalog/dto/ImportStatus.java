@@ -0,0 +1,8 @@
+package com.dscatalog.dscatalog.dto;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
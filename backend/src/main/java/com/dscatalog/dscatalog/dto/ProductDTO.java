@@ -18,6 +18,7 @@ public class ProductDTO implements Serializable {
     private Double price;
     private String imgUrl;
     private Instant date;
+    private Integer version;
 
     private List<CategoryDTO> categories = new ArrayList<>();
 
@@ -33,6 +34,14 @@ public class ProductDTO implements Serializable {
         this.date = date;
     }
 
+    public ProductDTO(Long id, String name, Double price, String imgUrl, Instant date) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.imgUrl = imgUrl;
+        this.date = date;
+    }
+
     public ProductDTO(Product entity) {
         this.id = entity.getId();
         this.name = entity.getName();
@@ -40,6 +49,7 @@ public class ProductDTO implements Serializable {
         this.price = entity.getPrice();
         this.imgUrl = entity.getImgUrl();
         this.date = entity.getDate();
+        this.version = entity.getVersion();
     }
 
     public ProductDTO(Product entity, Set<Category> categories) {
@@ -55,6 +65,14 @@ public class ProductDTO implements Serializable {
         this.id = id;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,61 @@
+package com.dscatalog.dscatalog.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * A page without totals: size + 1 rows are read to tell whether another page follows, so no COUNT is issued.
+ */
+public class SliceDTO<T> implements Serializable {
+    private static final long serialVersionUID = 5284103557710240291L;
+
+    private List<T> content = new ArrayList<>();
+    private Integer number;
+    private Integer size;
+    private boolean hasNext;
+
+    public SliceDTO() {
+    }
+
+    public SliceDTO(Slice<T> slice) {
+        this.content = slice.getContent();
+        this.number = slice.getNumber();
+        this.size = slice.getSize();
+        this.hasNext = slice.hasNext();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
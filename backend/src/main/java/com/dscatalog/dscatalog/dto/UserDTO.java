@@ -35,6 +35,11 @@ public class UserDTO implements Serializable {
         entity.getRoles().forEach(rol -> this.roles.add(new RoleDTO(rol)));
     }
 
+    public UserDTO(User entity, Set<RoleDTO> roles) {
+        this(entity.getId(), entity.getFirstName(), entity.getLastName(), entity.getEmail());
+        this.roles.addAll(roles);
+    }
+
     public Long getId() {
         return id;
     }
@@ -1,5 +1,8 @@
 package com.dscatalog.dscatalog.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.time.Instant;
@@ -8,7 +11,9 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_category")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@Table(name = "tb_category", indexes = @Index(name = "idx_category_name_id", columnList = "name, id"))
 public class Category implements Serializable {
     private static final long serialVersionUID = -2488373169397535875L;
 
@@ -23,6 +28,10 @@ public class Category implements Serializable {
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant updateAt;
 
+    @Version
+    @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL")
+    private Integer version;
+
     @ManyToMany(mappedBy = "categories")
     private Set<Product> products = new HashSet<>();
     public Category(){
@@ -41,6 +50,10 @@ public class Category implements Serializable {
         this.id = id;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
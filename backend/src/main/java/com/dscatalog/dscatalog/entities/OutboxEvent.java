@@ -0,0 +1,92 @@
+package com.dscatalog.dscatalog.entities;
+
+import com.dscatalog.dscatalog.services.events.ChangeType;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/*
+ * One catalog change, written in the transaction that made it. The feed sequence stays empty until the relay
+ * picks the row up after commit, so the feed is ordered by commit rather than by id.
+ */
+@Entity
+@Table(name = "tb_outbox_event", indexes = @Index(name = "uk_outbox_event_feed_sequence", columnList = "feed_sequence", unique = true))
+public class OutboxEvent implements Serializable {
+    private static final long serialVersionUID = 3390530457212338853L;
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "feed_sequence")
+    private Long feedSequence;
+
+    private String aggregateType;
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType type;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private Instant createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateType, Long aggregateId, ChangeType type) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFeedSequence() {
+        return feedSequence;
+    }
+
+    public void setFeedSequence(Long feedSequence) {
+        this.feedSequence = feedSequence;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = Instant.now();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutboxEvent)) return false;
+        OutboxEvent that = (OutboxEvent) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
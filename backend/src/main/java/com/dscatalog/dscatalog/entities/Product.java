@@ -1,5 +1,8 @@
 package com.dscatalog.dscatalog.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.time.Instant;
@@ -7,13 +10,18 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+/*
+ * The (name, id) index serves the name ordering and the keyset pages; it cannot serve the contains-name filter,
+ * whose leading wildcard makes the database scan, and only helps there by handing rows over in name order.
+ */
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = @Index(name = "idx_product_name_id", columnList = "name, id"))
 public class Product implements Serializable {
     private static final long serialVersionUID = -2488373169397535875L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "tb_product_seq", allocationSize = 50)
     private Long id;
     private String name;
 
@@ -25,10 +33,16 @@ public class Product implements Serializable {
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant date;
 
+    @Version
+    @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL")
+    private Integer version;
+
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product.categories")
     @JoinTable(name = "tb_product_category",
          joinColumns = @JoinColumn(name = "product_id"),
-         inverseJoinColumns = @JoinColumn(name = "category_id"))
+         inverseJoinColumns = @JoinColumn(name = "category_id"),
+         indexes = @Index(name = "idx_product_category_category_product", columnList = "category_id, product_id"))
     Set<Category> categories = new HashSet<>();
 
     public Product() {
@@ -51,6 +65,10 @@ public class Product implements Serializable {
         this.id = id;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,221 @@
+package com.dscatalog.dscatalog.generator;
+
+import com.dscatalog.dscatalog.services.CategorySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Fills the database with a synthetic catalog before the application starts serving. Enable it with the
+ * "generate" profile next to the usual ones, e.g.
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=test,generate \
+ *       -Dspring-boot.run.arguments="--dscatalog.generator.products=3000000 --dscatalog.generator.categories=5000"
+ *
+ * Rows are added on top of whatever is already there, with batched JDBC and one random stream per table
+ * seeded from dscatalog.generator.seed, so the same settings always produce the same catalog.
+ * Category popularity is skewed: a few categories hold most products, the long tail only a handful, and
+ * products belong to one to five categories, most of them to one or two.
+ * Against PostgreSQL add reWriteBatchedInserts=true to the JDBC URL; with spring.main.web-application-type=none
+ * the application exits once the catalog is written.
+ */
+@Component
+@Profile("generate")
+public class CatalogGenerator implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private static final String[] ADJECTIVES = {"Smart", "Portable", "Wireless", "Classic", "Compact", "Pro",
+            "Ultra", "Eco", "Digital", "Vintage", "Premium", "Essential", "Deluxe", "Mini", "Advanced", "Gamer"};
+    private static final String[] NOUNS = {"Phone", "Laptop", "Monitor", "Keyboard", "Camera", "Speaker",
+            "Headset", "Book", "Chair", "Desk", "Watch", "Tablet", "Router", "Printer", "Lamp", "Backpack"};
+    private static final String[] DEPARTMENTS = {"Books", "Electronics", "Computers", "Home", "Garden", "Toys",
+            "Sports", "Fashion", "Health", "Automotive", "Music", "Office", "Pets", "Tools", "Games", "Food"};
+    private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation "
+            + "ullamco laboris nisi ut aliquip ex ea commodo consequat.";
+    /* bcrypt of "123456", as in import.sql */
+    private static final String PASSWORD_HASH = "$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG";
+    private static final Instant EPOCH = Instant.parse("2019-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Value("${dscatalog.generator.seed:42}")
+    private long seed;
+
+    @Value("${dscatalog.generator.products:1000000}")
+    private int products;
+
+    @Value("${dscatalog.generator.categories:2000}")
+    private int categories;
+
+    @Value("${dscatalog.generator.users:10000}")
+    private int users;
+
+    @Value("${dscatalog.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        List<Long> categoryIds = generateCategories();
+        generateProducts(categoryIds);
+        generateUsers();
+        /* the rows bypass JPA, so nothing else tells the snapshot loaded at startup about them */
+        categorySnapshot.refresh();
+        LOG.info("Generated {} products, {} categories and {} users in {} s", products, categories, users,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private List<Long> generateCategories() {
+        SplittableRandom random = new SplittableRandom(seed);
+        long before = maxId("tb_category");
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= categories; i++) {
+            String name = pick(random, DEPARTMENTS) + " " + pick(random, NOUNS) + "s " + i;
+            batch.add(new Object[] {name, timestamp(random)});
+            if (batch.size() == batchSize) {
+                flush("INSERT INTO tb_category (name, created_at) VALUES (?, ?)", batch);
+            }
+        }
+        flush("INSERT INTO tb_category (name, created_at) VALUES (?, ?)", batch);
+        return jdbcTemplate.queryForList("SELECT id FROM tb_category WHERE id > ? ORDER BY id", Long.class, before);
+    }
+
+    private void generateProducts(List<Long> categoryIds) {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        long firstId = maxId("tb_product") + 1;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<Object[]> links = new ArrayList<>(batchSize * 2);
+        for (long id = firstId; id < firstId + products; id++) {
+            String name = pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " " + id;
+            /* log-uniform prices between 5 and 5000, so cheap products outnumber expensive ones */
+            double price = Math.round(5 * Math.exp(random.nextDouble() * Math.log(1000)) * 100) / 100.0;
+            batch.add(new Object[] {id, name, price, timestamp(random), DESCRIPTION,
+                    "https://img.example.com/products/" + id + ".jpg"});
+            addCategoryLinks(random, id, categoryIds, links);
+            if (batch.size() == batchSize) {
+                flushProducts(batch, links);
+                if ((id - firstId + 1) % 100_000 == 0) {
+                    LOG.info("Generated {} of {} products", id - firstId + 1, products);
+                }
+            }
+        }
+        flushProducts(batch, links);
+        jdbcTemplate.execute("ALTER SEQUENCE tb_product_seq RESTART WITH " + (firstId + products));
+    }
+
+    private void addCategoryLinks(SplittableRandom random, long productId, List<Long> categoryIds, List<Object[]> links) {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        int fanOut = Math.min(categoryIds.size(), categoriesPerProduct(random));
+        List<Long> chosen = new ArrayList<>(fanOut);
+        while (chosen.size() < fanOut) {
+            /* cubing a uniform value skews the choice towards the first, most popular categories */
+            double skew = Math.pow(random.nextDouble(), 3);
+            Long categoryId = categoryIds.get((int) (skew * categoryIds.size()));
+            if (!chosen.contains(categoryId)) {
+                chosen.add(categoryId);
+                links.add(new Object[] {productId, categoryId});
+            }
+        }
+    }
+
+    private static int categoriesPerProduct(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 45) {
+            return 1;
+        }
+        if (roll < 75) {
+            return 2;
+        }
+        if (roll < 90) {
+            return 3;
+        }
+        return roll < 97 ? 4 : 5;
+    }
+
+    private void flushProducts(List<Object[]> batch, List<Object[]> links) {
+        flush("INSERT INTO tb_product (id, name, price, date, description, img_url) VALUES (?, ?, ?, ?, ?, ?)", batch);
+        flush("INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)", links);
+    }
+
+    private void generateUsers() {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        Long operator = roleId("ROLE_OPERATOR");
+        Long admin = roleId("ROLE_ADMIN");
+        long before = maxId("tb_user");
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= users; i++) {
+            String first = pick(random, NOUNS);
+            String last = pick(random, DEPARTMENTS);
+            batch.add(new Object[] {first, last, "user" + (before + i) + "@example.com", PASSWORD_HASH});
+            if (batch.size() == batchSize) {
+                flush("INSERT INTO tb_user (first_name, last_name, email, password) VALUES (?, ?, ?, ?)", batch);
+            }
+        }
+        flush("INSERT INTO tb_user (first_name, last_name, email, password) VALUES (?, ?, ?, ?)", batch);
+
+        /* every user is an operator, about one in twenty is also an admin */
+        List<Object[]> roles = new ArrayList<>(batchSize);
+        for (Long userId : jdbcTemplate.queryForList("SELECT id FROM tb_user WHERE id > ? ORDER BY id", Long.class, before)) {
+            roles.add(new Object[] {userId, operator});
+            if (random.nextInt(20) == 0) {
+                roles.add(new Object[] {userId, admin});
+            }
+            if (roles.size() >= batchSize) {
+                flush("INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)", roles);
+            }
+        }
+        flush("INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)", roles);
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private Long roleId(String authority) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM tb_role WHERE authority = ?", Long.class, authority);
+        if (ids.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO tb_role (authority) VALUES (?)", authority);
+            return roleId(authority);
+        }
+        return ids.get(0);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /* spread over the three years after EPOCH */
+    private static Timestamp timestamp(SplittableRandom random) {
+        return Timestamp.from(EPOCH.plus(random.nextLong(3 * 365 * 24 * 3600L), ChronoUnit.SECONDS));
+    }
+}
@@ -0,0 +1,8 @@
+package com.dscatalog.dscatalog.projections;
+
+public interface ProductCategoryProjection {
+
+    Long getProductId();
+    Long getCategoryId();
+    String getCategoryName();
+}
@@ -0,0 +1,7 @@
+package com.dscatalog.dscatalog.projections;
+
+public interface ProductProjection {
+
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,25 @@
+package com.dscatalog.dscatalog.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+public class ProductHandler {
+
+    private final ReactiveProductRepository repository;
+
+    public ProductHandler(ReactiveProductRepository repository) {
+        this.repository = repository;
+    }
+
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        Pageable pageable = Responses.pageable(request);
+        return Responses.page(repository.findPage(pageable), repository.count(), pageable);
+    }
+
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return Responses.entity(repository.findById(id), request);
+    }
+}
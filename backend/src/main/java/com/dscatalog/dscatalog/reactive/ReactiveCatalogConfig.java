@@ -0,0 +1,66 @@
+package com.dscatalog.dscatalog.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveCatalogConfig {
+
+    @Bean
+    public ReactiveProductRepository reactiveProductRepository(DatabaseClient client) {
+        return new ReactiveProductRepository(client);
+    }
+
+    @Bean
+    public ReactiveCategoryRepository reactiveCategoryRepository(DatabaseClient client) {
+        return new ReactiveCategoryRepository(client);
+    }
+
+    @Bean
+    public ProductHandler productHandler(ReactiveProductRepository repository) {
+        return new ProductHandler(repository);
+    }
+
+    @Bean
+    public CategoryHandler categoryHandler(ReactiveCategoryRepository repository) {
+        return new CategoryHandler(repository);
+    }
+
+    /*
+     * Same paths and response shapes as the servlet GET endpoints, so clients can be pointed at either.
+     */
+    @Bean
+    public RouterFunction<ServerResponse> catalogRoutes(ProductHandler products, CategoryHandler categories) {
+        return RouterFunctions.route()
+                .GET("/products", products::findAll)
+                .GET("/products/{id:[0-9]+}", products::findById)
+                .GET("/categories", categories::findAll)
+                .GET("/categories/{id:[0-9]+}", categories::findById)
+                .build();
+    }
+
+    /*
+     * Creates and seeds an in-memory database for development and tests. Deployments point
+     * spring.r2dbc.url at the database the servlet application owns and leave this off.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "dscatalog.reactive.init-database", havingValue = "true")
+    public ConnectionFactoryInitializer reactiveDatabaseInitializer(ConnectionFactory connectionFactory) {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+                new ClassPathResource("reactive-schema.sql"), new ClassPathResource("import.sql")));
+        return initializer;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dscatalog.dscatalog.reactive;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveCategoryRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveCategoryRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<CategoryDTO> findPage(Pageable pageable) {
+        return client.sql("SELECT id, name FROM tb_category ORDER BY id LIMIT :limit OFFSET :offset")
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map((row, metadata) -> new CategoryDTO(row.get("id", Long.class), row.get("name", String.class)))
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return client.sql("SELECT COUNT(*) FROM tb_category")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<CategoryDTO> findById(Long id) {
+        return client.sql("SELECT id, name, version FROM tb_category WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> {
+                    CategoryDTO dto = new CategoryDTO(row.get("id", Long.class), row.get("name", String.class));
+                    dto.setVersion(row.get("version", Integer.class));
+                    return dto;
+                })
+                .one();
+    }
+}
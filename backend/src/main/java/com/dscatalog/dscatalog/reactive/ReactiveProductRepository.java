@@ -0,0 +1,78 @@
+package com.dscatalog.dscatalog.reactive;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import io.r2dbc.spi.Row;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/*
+ * Reads straight into the existing DTOs with the same columns the servlet queries project.
+ */
+public class ReactiveProductRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveProductRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<ProductDTO> findPage(Pageable pageable) {
+        return client.sql("SELECT id, name, price, img_url, date FROM tb_product ORDER BY id LIMIT :limit OFFSET :offset")
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map((row, metadata) -> new ProductDTO(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("price", Double.class),
+                        row.get("img_url", String.class),
+                        toInstant(row)))
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return client.sql("SELECT COUNT(*) FROM tb_product")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<ProductDTO> findById(Long id) {
+        Mono<ProductDTO> product = client.sql("SELECT id, name, description, price, img_url, date, version "
+                + "FROM tb_product WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> {
+                    ProductDTO dto = new ProductDTO(
+                            row.get("id", Long.class),
+                            row.get("name", String.class),
+                            row.get("description", String.class),
+                            row.get("price", Double.class),
+                            row.get("img_url", String.class),
+                            toInstant(row));
+                    dto.setVersion(row.get("version", Integer.class));
+                    return dto;
+                })
+                .one();
+        Flux<CategoryDTO> categories = client.sql("SELECT c.id, c.name FROM tb_category c "
+                + "INNER JOIN tb_product_category pc ON pc.category_id = c.id "
+                + "WHERE pc.product_id = :id ORDER BY c.id")
+                .bind("id", id)
+                .map((row, metadata) -> new CategoryDTO(row.get("id", Long.class), row.get("name", String.class)))
+                .all();
+        return product.zipWith(categories.collectList(), (dto, list) -> {
+            dto.getCategories().addAll(list);
+            return dto;
+        });
+    }
+
+    /* same interpretation of TIMESTAMP WITHOUT TIME ZONE as Hibernate, which uses the JVM zone */
+    private static Instant toInstant(Row row) {
+        LocalDateTime date = row.get("date", LocalDateTime.class);
+        return date == null ? null : date.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,65 @@
+package com.dscatalog.dscatalog.reactive;
+
+import com.dscatalog.dscatalog.resources.exceptions.StandardError;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/*
+ * Paging and error bodies shaped like the servlet API: page/size parameters as Spring Data reads them,
+ * Page JSON, and StandardError for 404.
+ */
+final class Responses {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private Responses() {
+    }
+
+    static Pageable pageable(ServerRequest request) {
+        int page = Math.max(intParam(request, "page", 0), 0);
+        int size = Math.min(Math.max(intParam(request, "size", DEFAULT_PAGE_SIZE), 1), MAX_PAGE_SIZE);
+        return PageRequest.of(page, size);
+    }
+
+    static <T> Mono<ServerResponse> page(Flux<T> content, Mono<Long> total, Pageable pageable) {
+        return content.collectList()
+                .zipWith(total, (list, count) -> new PageImpl<>(list, pageable, count))
+                .flatMap(page -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(page));
+    }
+
+    static <T> Mono<ServerResponse> entity(Mono<T> entity, ServerRequest request) {
+        return entity
+                .flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto))
+                .switchIfEmpty(Mono.defer(() -> notFound(request)));
+    }
+
+    private static Mono<ServerResponse> notFound(ServerRequest request) {
+        HttpStatus status = HttpStatus.NOT_FOUND;
+        StandardError err = new StandardError();
+        err.setTimestamp(Instant.now());
+        err.setStatus(status.value());
+        err.setError("Resource not found");
+        err.setMessage("Entity not found");
+        err.setPath(request.path());
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(err);
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        }
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -2,8 +2,22 @@ package com.dscatalog.dscatalog.repositories;
 
 import com.dscatalog.dscatalog.entities.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    /*
+     * Product writes resolve the same few category sets over and over; with the query and entity caches
+     * a repeated set is answered without SQL.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Category> findAllById(Iterable<Long> ids);
 }
@@ -0,0 +1,41 @@
+package com.dscatalog.dscatalog.repositories;
+
+import com.dscatalog.dscatalog.entities.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT obj.id FROM OutboxEvent obj WHERE obj.feedSequence IS NULL ORDER BY obj.id")
+    List<Long> findPendingIds(Pageable pageable);
+
+    @Query("SELECT obj FROM OutboxEvent obj WHERE obj.feedSequence > :after ORDER BY obj.feedSequence")
+    List<OutboxEvent> findPublishedAfter(Long after, Pageable pageable);
+
+    @Query("SELECT MAX(obj.feedSequence) FROM OutboxEvent obj")
+    Long findLastSequence();
+
+    @Query("SELECT MIN(obj.feedSequence) FROM OutboxEvent obj")
+    Long findFirstSequence();
+
+    /* one statement for a whole import chunk */
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "INSERT INTO tb_outbox_event (aggregate_type, aggregate_id, type, created_at) "
+                    + "SELECT 'product', tb_product.id, 'INSERT', :createdAt FROM tb_product WHERE tb_product.id IN :ids")
+    int insertProductsCreated(Collection<Long> ids, Instant createdAt);
+
+    /* the newest published event is always kept, so the feed knows where it stands after a purge */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent obj WHERE obj.createdAt < :before "
+            + "AND obj.feedSequence < (SELECT MAX(last.feedSequence) FROM OutboxEvent last)")
+    int deletePublishedBefore(Instant before);
+}
@@ -1,9 +1,84 @@
 package com.dscatalog.dscatalog.repositories;
 
+import com.dscatalog.dscatalog.dto.ProductDTO;
 import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.projections.ProductCategoryProjection;
+import com.dscatalog.dscatalog.projections.ProductProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("SELECT new com.dscatalog.dscatalog.dto.ProductDTO(obj.id, obj.name, obj.price, obj.imgUrl, obj.date) "
+            + "FROM Product obj")
+    Slice<ProductDTO> findAllSummaries(Pageable pageable);
+
+    @Query("SELECT obj FROM Product obj")
+    Slice<Product> findSlice(Pageable pageable);
+
+    /* products without a name come last, as they do by default on PostgreSQL, on every database */
+    @Query("SELECT obj FROM Product obj ORDER BY obj.name NULLS LAST, obj.id")
+    List<Product> findFirstPage(Pageable pageable);
+
+    @Query("SELECT obj FROM Product obj "
+            + "WHERE obj.name > :name OR (obj.name = :name AND obj.id > :id) OR obj.name IS NULL "
+            + "ORDER BY obj.name NULLS LAST, obj.id")
+    List<Product> findPageAfter(String name, Long id, Pageable pageable);
+
+    @Query("SELECT obj FROM Product obj WHERE obj.name IS NULL AND obj.id > :id ORDER BY obj.id")
+    List<Product> findPageAfterNullName(Long id, Pageable pageable);
+
+    @Query("SELECT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id IN :ids")
+    List<Product> findProductsWithCategories(List<Long> ids);
+
+    @Query("SELECT obj FROM Product obj WHERE obj.id > :id ORDER BY obj.id")
+    List<Product> findBatchAfter(Long id, Pageable pageable);
+
+    /* native, so a sort names columns rather than properties, and the name arrives with its LIKE wildcards escaped */
+    @Query(nativeQuery = true,
+            value = "SELECT tb_product.id, tb_product.name FROM tb_product "
+                    + "WHERE UPPER(tb_product.name) LIKE UPPER(CONCAT('%', :name, '%')) ESCAPE '\\'")
+    Slice<ProductProjection> searchProducts(String name, Pageable pageable);
+
+    @Query(nativeQuery = true,
+            value = "SELECT COUNT(*) FROM tb_product "
+                    + "WHERE UPPER(tb_product.name) LIKE UPPER(CONCAT('%', :name, '%')) ESCAPE '\\'")
+    long countProducts(String name);
+
+    @Query(nativeQuery = true,
+            value = "SELECT tb_product.id, tb_product.name FROM tb_product "
+                    + "WHERE tb_product.id IN (SELECT product_id FROM tb_product_category WHERE category_id = :categoryId) "
+                    + "AND UPPER(tb_product.name) LIKE UPPER(CONCAT('%', :name, '%')) ESCAPE '\\'")
+    Slice<ProductProjection> searchProductsByCategory(Long categoryId, String name, Pageable pageable);
+
+    @Query(nativeQuery = true,
+            value = "SELECT COUNT(*) FROM tb_product "
+                    + "WHERE tb_product.id IN (SELECT product_id FROM tb_product_category WHERE category_id = :categoryId) "
+                    + "AND UPPER(tb_product.name) LIKE UPPER(CONCAT('%', :name, '%')) ESCAPE '\\'")
+    long countProductsByCategory(Long categoryId, String name);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.dscatalog.dscatalog.dto.ProductDTO(obj.id, obj.name, obj.description, obj.price, obj.imgUrl, obj.date) "
+            + "FROM Product obj ORDER BY obj.id")
+    Stream<ProductDTO> streamAll();
+
+    /* in the order of streamAll(), so both can be merged by product id */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(nativeQuery = true,
+            value = "SELECT tb_product_category.product_id AS productId, tb_category.id AS categoryId, "
+                    + "tb_category.name AS categoryName FROM tb_product_category "
+                    + "INNER JOIN tb_category ON tb_category.id = tb_product_category.category_id "
+                    + "ORDER BY tb_product_category.product_id, tb_category.id")
+    Stream<ProductCategoryProjection> streamAllCategories();
 }
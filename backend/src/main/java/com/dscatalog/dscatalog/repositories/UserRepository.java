@@ -2,9 +2,22 @@ package com.dscatalog.dscatalog.repositories;
 
 import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.entities.User;
+import com.dscatalog.dscatalog.projections.UserRoleProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Query("SELECT obj FROM User obj")
+    Slice<User> findSlice(Pageable pageable);
+
+    @Query(nativeQuery = true,
+            value = "SELECT user_id AS userId, role_id AS roleId FROM tb_user_role WHERE user_id IN :userIds")
+    List<UserRoleProjection> findRoleIds(List<Long> userIds);
 }
@@ -0,0 +1,83 @@
+package com.dscatalog.dscatalog.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/*
+ * Runs handler bodies on the read or write pool instead of the Tomcat request thread.
+ * The task is submitted before the handler returns, so a full pool is rejected on the request thread
+ * and answered with 503 at once. A task that exceeds its timeout is cancelled and answered with 503 too.
+ */
+@Component
+public class AsyncRequests {
+
+    @Autowired
+    @Qualifier("readExecutor")
+    private AsyncTaskExecutor readExecutor;
+
+    @Autowired
+    @Qualifier("writeExecutor")
+    private AsyncTaskExecutor writeExecutor;
+
+    @Value("${dscatalog.async.read.timeout}")
+    private Duration readTimeout;
+
+    @Value("${dscatalog.async.write.timeout}")
+    private Duration writeTimeout;
+
+    public <T> DeferredResult<T> read(Callable<T> callable) {
+        return submit(readExecutor, readTimeout, callable);
+    }
+
+    public <T> DeferredResult<T> write(Callable<T> callable) {
+        return submit(writeExecutor, writeTimeout, callable);
+    }
+
+    /*
+     * Runs function on the write pool with the value of input, once input completes on whatever pool produced it.
+     * A failure of input or a full write pool completes the request with that exception.
+     */
+    public <S, T> DeferredResult<T> write(CompletableFuture<S> input, Function<S, T> function) {
+        DeferredResult<T> result = new DeferredResult<>(writeTimeout.toMillis());
+        CompletableFuture<T> output = input.thenApplyAsync(function, writeExecutor);
+        output.whenComplete((value, e) -> {
+            if (e == null) {
+                result.setResult(value);
+            }
+            else {
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        result.onTimeout(() -> {
+            input.cancel(true);
+            output.cancel(true);
+        });
+        return result;
+    }
+
+    private static <T> DeferredResult<T> submit(AsyncTaskExecutor executor, Duration timeout, Callable<T> callable) {
+        DeferredResult<T> result = new DeferredResult<>(timeout.toMillis());
+        Future<?> future = executor.submit(() -> {
+            try {
+                result.setResult(callable.call());
+            }
+            catch (Throwable e) {
+                /* Errors too, or the request would hang until its timeout and be answered as overloaded */
+                result.setErrorResult(e);
+            }
+        });
+        result.onTimeout(() -> future.cancel(true));
+        return result;
+    }
+}
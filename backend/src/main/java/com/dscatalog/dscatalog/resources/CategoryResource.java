@@ -1,15 +1,20 @@
 package com.dscatalog.dscatalog.resources;
 
 import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
 import com.dscatalog.dscatalog.services.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.Set;
 
 @RestController
 @RequestMapping(value = "/categories")
@@ -18,35 +23,62 @@ public class CategoryResource {
     @Autowired
     private CategoryService service;
 
+    @Autowired
+    private AsyncRequests tasks;
+
     @GetMapping
-    public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable) {
-        Page<CategoryDTO> list = service.findAllPaged(pageable);
-        return ResponseEntity.ok(list);
+    public DeferredResult<ResponseEntity<Page<CategoryDTO>>> findAll(Pageable pageable) {
+        return tasks.read(() -> {
+            Page<CategoryDTO> list = service.findAllPaged(pageable);
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    @GetMapping(params = "after")
+    public DeferredResult<ResponseEntity<CursorPageDTO<CategoryDTO>>> findAllAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        return tasks.read(() -> {
+            CursorPageDTO<CategoryDTO> list = service.findAllAfter(after, size);
+            return ResponseEntity.ok(list);
+        });
     }
 
     @GetMapping(value = "/{id}")
-    public ResponseEntity<CategoryDTO> findById(@PathVariable Long id) {
-        CategoryDTO dto = service.findById(id);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<CategoryDTO>> findById(@PathVariable Long id) {
+        return tasks.read(() -> {
+            /* a matching If-None-Match is answered with 304 when the result is written on the dispatch */
+            CategoryDTO dto = service.findById(id);
+            return ResponseEntity.ok().eTag(ETags.of(dto.getVersion())).body(dto);
+        });
     }
 
     @PostMapping
-    public ResponseEntity<CategoryDTO> insert(@RequestBody CategoryDTO dto) {
-        dto = service.insert(dto);
-        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.getId()).toUri();
-        return ResponseEntity.created(uri).body(dto);
+    public DeferredResult<ResponseEntity<CategoryDTO>> insert(@RequestBody CategoryDTO dto) {
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        return tasks.write(() -> {
+            CategoryDTO newDto = service.insert(dto);
+            URI uri = location.buildAndExpand(newDto.getId()).toUri();
+            return ResponseEntity.created(uri).body(newDto);
+        });
     }
 
     @PutMapping(value = "/{id}")
-    public ResponseEntity<CategoryDTO> update(@PathVariable Long id, @RequestBody CategoryDTO dto) {
-        dto = service.update(id, dto);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<CategoryDTO>> update(@PathVariable Long id, @RequestBody CategoryDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Set<Integer> expectedVersions = ETags.parseIfMatch(ifMatch);
+        return tasks.write(() -> {
+            CategoryDTO updated = service.update(id, dto, expectedVersions);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+        });
     }
 
     @DeleteMapping(value = "/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        service.delete(id);
-        return ResponseEntity.noContent().build();
+    public DeferredResult<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return tasks.write(() -> {
+            service.delete(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
     }
 
 }
@@ -0,0 +1,60 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.dto.ChangeEventDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
+import com.dscatalog.dscatalog.services.ChangeFeedRelay;
+import com.dscatalog.dscatalog.services.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(value = "/changes")
+public class ChangeFeedResource {
+
+    @Autowired
+    private ChangeFeedService service;
+
+    @Autowired
+    private ChangeFeedRelay relay;
+
+    @Autowired
+    private AsyncRequests tasks;
+
+    /*
+     * The events after the given sequence; nextCursor is the sequence to pass as after for the next page.
+     * Cursor checks read the primary: a lagging replica still holds purged events and would accept their cursors.
+     */
+    @GetMapping
+    public DeferredResult<ResponseEntity<CursorPageDTO<ChangeEventDTO>>> findAfter(
+            @RequestParam(value = "after", defaultValue = "0") Long after,
+            @RequestParam(value = "size", defaultValue = "100") Integer size) {
+        return tasks.read(() -> {
+            CursorPageDTO<ChangeEventDTO> list = PrimaryPin.call(() -> service.findAfter(after, size));
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    /*
+     * Live feed as server-sent events whose ids are the sequences, so a reconnecting EventSource resumes through
+     * Last-Event-ID. Without either cursor the stream starts at the current end of the feed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "after", required = false) Long after) {
+        Long cursor = lastEventId != null ? lastEventId : after;
+        long start = PrimaryPin.call(() -> {
+            if (cursor == null) {
+                return service.findLastSequence();
+            }
+            service.checkCursor(cursor);
+            return cursor;
+        });
+        return relay.subscribe(start);
+    }
+}
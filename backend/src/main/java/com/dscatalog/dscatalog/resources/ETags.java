@@ -0,0 +1,62 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.services.exceptions.PreconditionFailedException;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Strong entity tags derived from the @Version column, so a tag can be computed without loading the entity.
+ * A product body embeds its categories, so its tag carries their ids and versions after the product version.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /* e.g. "3-1.0-2.4" for version 3 in categories 1 (version 0) and 2 (version 4) */
+    static String of(ProductDTO dto) {
+        StringBuilder tag = new StringBuilder().append('"').append(dto.getVersion());
+        dto.getCategories().stream()
+                .sorted(Comparator.comparing(CategoryDTO::getId))
+                .forEach(x -> tag.append('-').append(x.getId()).append('.').append(x.getVersion()));
+        return tag.append('"').toString();
+    }
+
+    /*
+     * Returns the versions listed in an If-Match header, any of which the update accepts, or null when any
+     * current version is acceptable. Weak tags never match under the strong comparison If-Match requires. Only
+     * the leading version of a product tag is compared, as an update replaces the product's own fields and its
+     * category links, never the categories themselves.
+     */
+    static Set<Integer> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Integer> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                String version = tag.substring(1, tag.length() - 1);
+                int end = version.indexOf('-');
+                try {
+                    versions.add(Integer.valueOf(end < 0 ? version : version.substring(0, end)));
+                }
+                catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+        return versions;
+    }
+}
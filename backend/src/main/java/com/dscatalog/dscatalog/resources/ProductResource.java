@@ -1,15 +1,31 @@
 package com.dscatalog.dscatalog.resources;
 
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
+import com.dscatalog.dscatalog.dto.ImportJobDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.dto.SliceDTO;
+import com.dscatalog.dscatalog.services.FeedFormat;
+import com.dscatalog.dscatalog.services.ProductExportService;
+import com.dscatalog.dscatalog.services.ProductImportService;
+import com.dscatalog.dscatalog.services.ProductSearchService;
 import com.dscatalog.dscatalog.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.Set;
 
 @RestController
 @RequestMapping(value = "/products")
@@ -18,35 +34,142 @@ public class ProductResource {
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private ProductSearchService searchService;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductExportService exportService;
+
+    @Autowired
+    private AsyncRequests tasks;
+
     @GetMapping
-    public ResponseEntity<Page<ProductDTO>> findAll(Pageable pageable) {
-        Page<ProductDTO> list = service.findAllPaged(pageable);
-        return ResponseEntity.ok(list);
+    public DeferredResult<ResponseEntity<Page<ProductDTO>>> findAll(
+            Pageable pageable,
+            @RequestParam(value = "expand", defaultValue = "") String expand,
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "name", defaultValue = "") String name) {
+        return tasks.read(() -> {
+            Page<ProductDTO> list;
+            if (categoryId != 0 || !name.isBlank()) {
+                list = service.findAllFiltered(categoryId == 0 ? null : categoryId, name.trim(), pageable);
+            }
+            else if ("categories".equalsIgnoreCase(expand)) {
+                list = service.findAllPagedWithCategories(pageable);
+            }
+            else {
+                list = service.findAllPaged(pageable);
+            }
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    /* same listing without the total, for clients that only page forward; cursor pages never count anyway */
+    @GetMapping(params = {"count=false", "!after"})
+    public DeferredResult<ResponseEntity<SliceDTO<ProductDTO>>> findAllSliced(
+            Pageable pageable,
+            @RequestParam(value = "expand", defaultValue = "") String expand,
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "name", defaultValue = "") String name) {
+        return tasks.read(() -> {
+            Slice<ProductDTO> list;
+            if (categoryId != 0 || !name.isBlank()) {
+                list = service.findAllFilteredSliced(categoryId == 0 ? null : categoryId, name.trim(), pageable);
+            }
+            else if ("categories".equalsIgnoreCase(expand)) {
+                list = service.findAllSlicedWithCategories(pageable);
+            }
+            else {
+                list = service.findAllSliced(pageable);
+            }
+            return ResponseEntity.ok(new SliceDTO<>(list));
+        });
+    }
+
+    @GetMapping(params = "after")
+    public DeferredResult<ResponseEntity<CursorPageDTO<ProductDTO>>> findAllAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        return tasks.read(() -> {
+            CursorPageDTO<ProductDTO> list = service.findAllAfter(after, size);
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    @GetMapping(value = "/search")
+    public DeferredResult<ResponseEntity<Page<ProductDTO>>> search(@RequestParam(value = "q", defaultValue = "") String q, Pageable pageable) {
+        return tasks.read(() -> {
+            Page<ProductDTO> list = searchService.search(q, pageable);
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "NDJSON") FeedFormat format) {
+        StreamingResponseBody body = out -> exportService.export(format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + format.getExtension())
+                .body(body);
     }
 
     @GetMapping(value = "/{id}")
-    public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
-        ProductDTO dto = service.findById(id);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<ProductDTO>> findById(@PathVariable Long id) {
+        return tasks.read(() -> {
+            /*
+             * The ETag comes from the cached DTO, which product and category writes evict, so revalidation costs
+             * no query; a matching If-None-Match is answered with 304 when the result is written on the dispatch.
+             */
+            ProductDTO dto = service.findById(id);
+            return ResponseEntity.ok().eTag(ETags.of(dto)).body(dto);
+        });
     }
 
     @PostMapping
-    public ResponseEntity<ProductDTO> insert(@RequestBody ProductDTO dto) {
-        dto = service.insert(dto);
-        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.getId()).toUri();
-        return ResponseEntity.created(uri).body(dto);
+    public DeferredResult<ResponseEntity<ProductDTO>> insert(@RequestBody ProductDTO dto) {
+        /* the current request is bound to this thread only, so the location base is taken before handing off */
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        return tasks.write(() -> {
+            ProductDTO newDto = service.insert(dto);
+            URI uri = location.buildAndExpand(newDto.getId()).toUri();
+            return ResponseEntity.created(uri).body(newDto);
+        });
     }
 
     @PutMapping(value = "/{id}")
-    public ResponseEntity<ProductDTO> update(@PathVariable Long id, @RequestBody ProductDTO dto) {
-        dto = service.update(id, dto);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<ProductDTO>> update(@PathVariable Long id, @RequestBody ProductDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Set<Integer> expectedVersions = ETags.parseIfMatch(ifMatch);
+        return tasks.write(() -> {
+            ProductDTO updated = service.update(id, dto, expectedVersions);
+            return ResponseEntity.ok().eTag(ETags.of(updated)).body(updated);
+        });
     }
 
     @DeleteMapping(value = "/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        service.delete(id);
-        return ResponseEntity.noContent().build();
+    public DeferredResult<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return tasks.write(() -> {
+            service.delete(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportJobDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        ImportJobDTO job = importService.submit(body, FeedFormat.fromContentType(contentType));
+        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(uri).body(job);
+    }
+
+    @GetMapping(value = "/import/{jobId}")
+    public ResponseEntity<ImportJobDTO> findImportJob(@PathVariable String jobId) {
+        ImportJobDTO job = importService.findJob(jobId);
+        return ResponseEntity.ok(job);
     }
 
 }
@@ -1,7 +1,9 @@
 package com.dscatalog.dscatalog.resources;
 
+import com.dscatalog.dscatalog.dto.SliceDTO;
 import com.dscatalog.dscatalog.dto.UserDTO;
 import com.dscatalog.dscatalog.dto.UserInsertDTO;
+import com.dscatalog.dscatalog.services.PasswordHasher;
 import com.dscatalog.dscatalog.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,7 +17,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 
@@ -26,35 +30,61 @@ public class UserResource {
     @Autowired
     private UserService service;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private AsyncRequests tasks;
+
     @GetMapping
-    public ResponseEntity<Page<UserDTO>> findAll(Pageable pageable) {
-        Page<UserDTO> list = service.findAllPaged(pageable);
-        return ResponseEntity.ok(list);
+    public DeferredResult<ResponseEntity<Page<UserDTO>>> findAll(Pageable pageable) {
+        return tasks.read(() -> {
+            Page<UserDTO> list = service.findAllPaged(pageable);
+            return ResponseEntity.ok(list);
+        });
+    }
+
+    @GetMapping(params = "count=false")
+    public DeferredResult<ResponseEntity<SliceDTO<UserDTO>>> findAllSliced(Pageable pageable) {
+        return tasks.read(() -> {
+            SliceDTO<UserDTO> list = new SliceDTO<>(service.findAllSliced(pageable));
+            return ResponseEntity.ok(list);
+        });
     }
 
     @GetMapping(value = "/{id}")
-    public ResponseEntity<UserDTO> findById(@PathVariable Long id) {
-        UserDTO dto = service.findById(id);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<UserDTO>> findById(@PathVariable Long id) {
+        return tasks.read(() -> {
+            UserDTO dto = service.findById(id);
+            return ResponseEntity.ok(dto);
+        });
     }
 
     @PostMapping
-    public ResponseEntity<UserDTO> insert(@RequestBody UserInsertDTO dto) {
-        UserDTO newDto = service.insert(dto);
-        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(newDto.getId()).toUri();
-        return ResponseEntity.created(uri).body(newDto);
+    public DeferredResult<ResponseEntity<UserDTO>> insert(@RequestBody UserInsertDTO dto) {
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        /* hash on the hash pool first, so the write pool and its connection are only held for the insert */
+        return tasks.write(passwordHasher.hash(dto.getPassword()), passwordHash -> {
+            UserDTO newDto = service.insert(dto, passwordHash);
+            URI uri = location.buildAndExpand(newDto.getId()).toUri();
+            return ResponseEntity.created(uri).body(newDto);
+        });
     }
 
     @PutMapping(value = "/{id}")
-    public ResponseEntity<UserDTO> update(@PathVariable Long id, @RequestBody UserDTO dto) {
-        dto = service.update(id, dto);
-        return ResponseEntity.ok(dto);
+    public DeferredResult<ResponseEntity<UserDTO>> update(@PathVariable Long id, @RequestBody UserDTO dto) {
+        return tasks.write(() -> {
+            UserDTO updated = service.update(id, dto);
+            return ResponseEntity.ok(updated);
+        });
     }
 
     @DeleteMapping(value = "/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        service.delete(id);
-        return ResponseEntity.noContent().build();
+    public DeferredResult<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return tasks.write(() -> {
+            service.delete(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
     }
 
 }
@@ -0,0 +1,249 @@
+package com.dscatalog.dscatalog.resources.filters;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductsImportedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Caches the serialized bytes of the catalog listings (GET /products and GET /categories), together with a
+ * gzip variant compressed once at store time, so a hit is served by copying bytes. The key is the path plus
+ * the query parameters in name order. Every product or category write drops the whole cache after commit;
+ * a response rendered from data read before that write is discarded instead of stored. A miss is rendered pinned
+ * to the primary, since whatever it reads is served to every client until the next write.
+ */
+public class ListingResponseCacheFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Set<String> PATHS = Set.of("/products", "/categories");
+    private static final int MAX_ENTRY_BYTES = 1024 * 1024;
+    private static final String GENERATION_ATTRIBUTE = ListingResponseCacheFilter.class.getName() + ".GENERATION";
+
+    private final Cache<String, CachedResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ListingResponseCacheFilter(String spec) {
+        this.cache = Caffeine.from(spec)
+                .weigher((String key, CachedResponse value) -> value.getWeight())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = keyOf(request);
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null) {
+                write(cached, "HIT", request, response);
+                return;
+            }
+            request.setAttribute(GENERATION_ATTRIBUTE, generation.get());
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+
+        /* the handler hands its work to the async pools from this thread, which carry the pin over */
+        boolean pinned = PrimaryPin.isPinned();
+        PrimaryPin.set(true);
+        try {
+            filterChain.doFilter(request, wrapper);
+        }
+        finally {
+            PrimaryPin.set(pinned);
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() != HttpStatus.OK.value() || wrapper.getContentType() == null || body.length > MAX_ENTRY_BYTES) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        CachedResponse rendered = new CachedResponse(wrapper.getContentType(), body);
+        HttpServletResponse target = (HttpServletResponse) wrapper.getResponse();
+        wrapper.resetBuffer();
+        if (generation.get() == (Long) request.getAttribute(GENERATION_ATTRIBUTE)) {
+            cache.put(key, rendered);
+        }
+        write(rendered, "MISS", request, target);
+    }
+
+    /* hit ratio, size and evictions under cache.* with cache=listings */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "listings");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void write(CachedResponse cached, String status, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader("X-Cache", status);
+        if (new ServletWebRequest(request, response).checkNotModified(cached.getEtag())) {
+            return;
+        }
+        response.setContentType(cached.getContentType());
+        byte[] bytes = cached.getBody();
+        if (acceptsGzip(request)) {
+            bytes = cached.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /*
+     * Accept-Encoding lists codings with optional q-values; gzip is acceptable when it, or failing that "*",
+     * is listed with a q-value above zero. A q-value that does not parse counts as zero.
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        Double gzip = null;
+        Double any = null;
+        for (String value : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String element : value.split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = qualityOf(parts);
+                }
+                else if (coding.equals("*")) {
+                    any = qualityOf(parts);
+                }
+            }
+        }
+        Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] param = parts[i].split("=", 2);
+            if (param.length == 2 && param[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(param[1].trim());
+                }
+                catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static final class CachedResponse {
+
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+
+        CachedResponse(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = Arrays.copyOf(body, body.length);
+            this.gzipBody = gzip(body);
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        byte[] getGzipBody() {
+            return gzipBody;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        int getWeight() {
+            return body.length + gzipBody.length;
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dscatalog.dscatalog.resources.filters;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/*
+ * Pins a client to the primary for a while after it writes, so its reads do not go to a replica that has not
+ * applied the write yet, whichever instance serves it next. Every request other than GET, HEAD and OPTIONS sets a
+ * cookie holding the time the pin ends; requests carrying a cookie that has not ended yet run their read-only
+ * transactions on the primary. The cookie is not signed, so an end further ahead than the window allows cannot
+ * have been issued here and is ignored; a client can still keep itself pinned by rewriting it, as it could by
+ * writing every few seconds.
+ *
+ * This only covers the database. The products cache, the listing cache and the category snapshot are per
+ * instance and only dropped on the instance that took the write, so another instance may still answer from
+ * its own copy until that expires.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "dscatalog-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    /* leeway for the clocks of the instances that issue and check the cookie */
+    private static final long CLOCK_SKEW_MILLIS = 1000;
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + window.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (!write && !isPinned(request, now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        /* restores rather than clears, as an enclosing filter may have pinned the request too */
+        boolean pinned = PrimaryPin.isPinned();
+        PrimaryPin.set(true);
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            PrimaryPin.set(pinned);
+        }
+    }
+
+    private boolean isPinned(HttpServletRequest request, long now) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            long until = Long.parseLong(cookie.getValue());
+            return until > now && until <= now + window.toMillis() + CLOCK_SKEW_MILLIS;
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.dscatalog.dscatalog.services;
 
 import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
 import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.repositories.CategoryRepository;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import com.dscatalog.dscatalog.services.events.ChangeType;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
+import com.dscatalog.dscatalog.services.exceptions.PreconditionFailedException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CategoryService {
@@ -22,17 +32,56 @@ public class CategoryService {
     @Autowired
     private CategoryRepository repository;
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private CategorySnapshot snapshot;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /*
+     * Served from the in-memory snapshot without touching the database; only sorts on properties the
+     * snapshot does not carry, such as createdAt, still go to tb_category, in a read-only transaction
+     * opened just for them so snapshot reads never take a connection.
+     */
     public Page<CategoryDTO> findAllPaged(Pageable pageable) {
-        Page<Category> list = repository.findAll(pageable);
-        return list.map(x -> new CategoryDTO(x));
+        if (!snapshot.supports(pageable.getSort())) {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            return readOnly.execute(status -> repository.findAll(pageable).map(x -> new CategoryDTO(x)));
+        }
+        List<CategoryDTO> list = snapshot.sorted(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(list, pageable, list.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), list.size());
+        int to = Math.min(from + pageable.getPageSize(), list.size());
+        return new PageImpl<>(list.subList(from, to), pageable, list.size());
+    }
+
+    public CursorPageDTO<CategoryDTO> findAllAfter(String cursor, Integer size) {
+        int limit = KeysetCursor.limit(size);
+        List<CategoryDTO> list;
+        if (cursor == null || cursor.isEmpty()) {
+            list = snapshot.after(null, null, limit + 1);
+        }
+        else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            list = snapshot.after(after.getKey(), after.getId(), limit + 1);
+        }
+        String nextCursor = null;
+        if (list.size() > limit) {
+            list = list.subList(0, limit);
+            CategoryDTO last = list.get(limit - 1);
+            nextCursor = KeysetCursor.encode(last.getName(), last.getId());
+        }
+        return new CursorPageDTO<>(list, limit, nextCursor);
     }
 
-    @Transactional(readOnly = true)
     public CategoryDTO findById(Long id) {
-        Optional<Category> obj = repository.findById(id);
-        Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-        return new CategoryDTO(entity);
+        return Optional.ofNullable(snapshot.get(id)).orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
     }
 
     @Transactional
@@ -40,15 +89,20 @@ public class CategoryService {
         Category entity = new Category();
         entity.setName(dto.getName());
         entity = repository.save(entity);
+        publisher.publishEvent(new CategoryChangedEvent(entity.getId(), ChangeType.INSERT));
         return new CategoryDTO(entity);
     }
 
     @Transactional
-    public CategoryDTO update(Long id, CategoryDTO dto) {
+    public CategoryDTO update(Long id, CategoryDTO dto, Set<Integer> expectedVersions) {
         try {
             Category entity = repository.getOne(id);
+            if (expectedVersions != null && !expectedVersions.contains(entity.getVersion())) {
+                throw new PreconditionFailedException("Versions " + expectedVersions + " are no longer current");
+            }
             entity.setName(dto.getName());
-            entity = repository.save(entity);
+            entity = repository.saveAndFlush(entity);
+            publisher.publishEvent(new CategoryChangedEvent(entity.getId(), ChangeType.UPDATE));
             return new CategoryDTO(entity);
         }
         catch (EntityNotFoundException e) {
@@ -56,9 +110,12 @@ public class CategoryService {
         }
     }
 
+    @Transactional
     public void delete(Long id) {
         try {
             repository.deleteById(id);
+            repository.flush();
+            publisher.publishEvent(new CategoryChangedEvent(id, ChangeType.DELETE));
         }
         catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Id not found " + id);
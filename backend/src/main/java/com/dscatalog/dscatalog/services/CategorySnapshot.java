@@ -0,0 +1,167 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.repositories.CategoryRepository;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Immutable copy of tb_category, which is small and changes a few times a day but is read on every menu render.
+ * Readers take the current snapshot from a volatile field and never lock; a write reloads the table after its
+ * transaction commits and swaps the new snapshot in as a whole. Writes made by other instances are picked up
+ * once the snapshot is older than dscatalog.categories.snapshot.max-age: the first reader to notice reloads it
+ * while the others keep being served from the old one.
+ * The DTOs are shared by all requests and must not be modified.
+ */
+@Component
+public class CategorySnapshot {
+
+    private static final Map<String, Comparator<CategoryDTO>> SORT_KEYS = Map.of(
+            "id", Comparator.comparing(CategoryDTO::getId),
+            "name", Comparator.comparing(CategoryDTO::getName, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "version", Comparator.comparing(CategoryDTO::getVersion, Comparator.nullsFirst(Comparator.naturalOrder())));
+    /* keyset order of the category cursor pages */
+    private static final Comparator<CategoryDTO> BY_NAME = SORT_KEYS.get("name").thenComparing(SORT_KEYS.get("id"));
+    /* bounds the sorted copies kept per snapshot; unusual sorts beyond it are sorted per request */
+    private static final int MAX_SORTED_VIEWS = 16;
+
+    @Autowired
+    private CategoryRepository repository;
+
+    @Value("${dscatalog.categories.snapshot.max-age:10m}")
+    private Duration maxAge;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile State state = new State(List.of(), 0L);
+
+    @PostConstruct
+    public void refresh() {
+        reloadLock.lock();
+        try {
+            load();
+        }
+        finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        refresh();
+    }
+
+    public boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> SORT_KEYS.containsKey(order.getProperty()) && !order.isIgnoreCase());
+    }
+
+    public CategoryDTO get(Long id) {
+        return current().byId.get(id);
+    }
+
+    /* all categories in the given order; the caller must check supports(sort) first */
+    public List<CategoryDTO> sorted(Sort sort) {
+        return Arrays.asList(current().sorted(sort));
+    }
+
+    /* up to limit categories following (name, id) in name order, or from the start when name is null */
+    public List<CategoryDTO> after(String name, Long id, int limit) {
+        CategoryDTO[] byName = current().byName;
+        int from = 0;
+        /* a null name is a category without one, which BY_NAME sorts first; only a null id starts over */
+        if (id != null) {
+            int index = Arrays.binarySearch(byName, new CategoryDTO(id, name), BY_NAME);
+            /* the cursor row itself may be gone by now, in which case the search reports the insertion point */
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        return Arrays.asList(byName).subList(from, Math.min(from + limit, byName.length));
+    }
+
+    private State current() {
+        State current = state;
+        if (System.nanoTime() - current.loadedAt > maxAge.toNanos() && reloadLock.tryLock()) {
+            try {
+                /* another reader may have reloaded it while this one was checking */
+                if (state == current) {
+                    load();
+                }
+            }
+            finally {
+                reloadLock.unlock();
+            }
+            return state;
+        }
+        return current;
+    }
+
+    /*
+     * Callers hold reloadLock, so a reload started after a commit is never overwritten by an older one.
+     * Reads from the primary, as a reload right after a write may run before any read replica has caught up.
+     */
+    private void load() {
+        List<CategoryDTO> categories = PrimaryPin.call(() -> repository.findAll()).stream()
+                .map(x -> new CategoryDTO(x)).collect(Collectors.toList());
+        state = new State(categories, System.nanoTime());
+    }
+
+    private static final class State {
+
+        private final long loadedAt;
+        private final Map<Long, CategoryDTO> byId;
+        private final CategoryDTO[] byName;
+        private final Map<Sort, CategoryDTO[]> views = new ConcurrentHashMap<>();
+        private final CategoryDTO[] unsorted;
+
+        State(List<CategoryDTO> categories, long loadedAt) {
+            this.loadedAt = loadedAt;
+            this.byId = categories.stream().collect(Collectors.toUnmodifiableMap(CategoryDTO::getId, Function.identity()));
+            this.unsorted = categories.stream().sorted(SORT_KEYS.get("id")).toArray(CategoryDTO[]::new);
+            this.byName = categories.stream().sorted(BY_NAME).toArray(CategoryDTO[]::new);
+        }
+
+        CategoryDTO[] sorted(Sort sort) {
+            if (sort.isUnsorted()) {
+                return unsorted;
+            }
+            CategoryDTO[] view = views.get(sort);
+            if (view != null) {
+                return view;
+            }
+            view = unsorted.clone();
+            Arrays.sort(view, comparator(sort));
+            if (views.size() < MAX_SORTED_VIEWS) {
+                views.putIfAbsent(sort, view);
+            }
+            return view;
+        }
+
+        private static Comparator<CategoryDTO> comparator(Sort sort) {
+            Comparator<CategoryDTO> comparator = null;
+            for (Sort.Order order : sort) {
+                Comparator<CategoryDTO> key = SORT_KEYS.get(order.getProperty());
+                if (order.isDescending()) {
+                    key = key.reversed();
+                }
+                comparator = comparator == null ? key : comparator.thenComparing(key);
+            }
+            /* ties keep id order, as the stable sort starts from the id-ordered array */
+            return comparator;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.dto.ChangeEventDTO;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductsImportedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Numbers the events appended to the outbox and pushes them to the open change streams. The relay runs on the
+ * single changeFeedScheduler thread, so sequences are handed out in the order the relay sees the commits. It only
+ * queues the events of each stream; changeFeedSender drains every queue on its own, so a slow client never holds
+ * up the relay or the other streams, and a stream whose queue overflows is closed. Heartbeats and the purge run
+ * on changeFeedHousekeeping.
+ * A committed catalog write wakes the relay right away; the periodic run picks up events committed by other
+ * instances and retries after a failure. Streams that fall behind, or resume from an older Last-Event-ID, catch
+ * up from the table one batch per run before they get the live events again.
+ */
+@Component
+public class ChangeFeedRelay implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedRelay.class);
+
+    @Autowired
+    private ChangeFeedService service;
+
+    @Autowired
+    @Qualifier("changeFeedScheduler")
+    private ThreadPoolTaskScheduler changeFeedScheduler;
+
+    @Autowired
+    @Qualifier("changeFeedHousekeeping")
+    private ThreadPoolTaskScheduler changeFeedHousekeeping;
+
+    @Autowired
+    @Qualifier("changeFeedSender")
+    private ThreadPoolTaskExecutor changeFeedSender;
+
+    @Value("${dscatalog.changes.relay.interval}")
+    private Duration interval;
+
+    @Value("${dscatalog.changes.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${dscatalog.changes.stream.timeout}")
+    private Duration streamTimeout;
+
+    @Value("${dscatalog.changes.stream.heartbeat}")
+    private Duration heartbeat;
+
+    @Value("${dscatalog.changes.stream.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${dscatalog.changes.retention}")
+    private Duration retention;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /* highest sequence sent to the live streams; only touched by the relay thread, -1 until the first run */
+    private long published = -1;
+
+    @PostConstruct
+    public void start() {
+        Instant first = Instant.now().plus(interval);
+        changeFeedScheduler.scheduleWithFixedDelay(this::relay, first, interval);
+        changeFeedHousekeeping.scheduleWithFixedDelay(this::heartbeat, Instant.now().plus(heartbeat), heartbeat);
+        changeFeedHousekeeping.scheduleWithFixedDelay(this::purge, first, Duration.ofHours(1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        wake();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        wake();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        wake();
+    }
+
+    /* streams the events after the given sequence; the caller checks that it is still in the feed */
+    public SseEmitter subscribe(long after) {
+        return subscribe(new SseEmitter(streamTimeout.toMillis()), after);
+    }
+
+    public SseEmitter subscribe(SseEmitter emitter, long after) {
+        Subscriber subscriber = new Subscriber(emitter, after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        wake();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dscatalog.changes.subscribers", this, x -> x.getSubscriberCount())
+                .description("Open change feed streams")
+                .register(registry);
+    }
+
+    /* coalesces the wake-ups of a burst of writes into one extra run */
+    private void wake() {
+        if (pending.compareAndSet(false, true)) {
+            try {
+                changeFeedScheduler.execute(this::relay);
+            }
+            catch (TaskRejectedException e) {
+                /* shutting down; the outbox keeps the events for the next start */
+                pending.set(false);
+            }
+        }
+    }
+
+    private void relay() {
+        pending.set(false);
+        try {
+            boolean more = PrimaryPin.call(this::runOnce);
+            if (more) {
+                wake();
+            }
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Change feed relay failed, retrying in {}: {}", interval, e.getMessage());
+        }
+    }
+
+    /* true when a batch came back full, so another run follows right away */
+    private boolean runOnce() {
+        if (published < 0) {
+            published = service.findLastSequence();
+        }
+        /* the read comes first so idle runs never commit an empty write transaction */
+        List<Long> ids = service.findPending(batchSize);
+        if (!ids.isEmpty()) {
+            service.assignSequences(ids);
+        }
+        boolean more = ids.size() == batchSize;
+        for (Subscriber subscriber : subscribers) {
+            /* a stream catching up takes the next page once its queue has room for it, the periodic run retries */
+            if (subscriber.cursor < published && subscriber.queue.remainingCapacity() >= batchSize) {
+                List<ChangeEventDTO> page = service.findPublished(subscriber.cursor, batchSize);
+                subscriber.send(page, published);
+                if (page.size() < batchSize) {
+                    /* nothing else is left up to published, purged gaps included */
+                    subscriber.cursor = published;
+                }
+                more |= subscriber.cursor < published;
+            }
+        }
+        List<ChangeEventDTO> batch = service.findPublished(published, batchSize);
+        if (!batch.isEmpty()) {
+            long last = batch.get(batch.size() - 1).getSequence();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.cursor == published) {
+                    subscriber.send(batch, last);
+                }
+            }
+            published = last;
+            more |= batch.size() == batchSize;
+        }
+        return more;
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    private void purge() {
+        try {
+            int purged = PrimaryPin.call(() -> service.purge(Instant.now().minus(retention)));
+            if (purged > 0) {
+                LOG.info("Purged {} change feed events older than {}", purged, retention);
+            }
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Change feed purge failed: {}", e.getMessage());
+        }
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /* last sequence queued; only touched by the relay thread once subscribed */
+        private long cursor;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.cursor = cursor;
+        }
+
+        /* queues the events up to the given sequence */
+        void send(List<ChangeEventDTO> events, long upTo) {
+            for (ChangeEventDTO event : events) {
+                if (event.getSequence() > upTo) {
+                    break;
+                }
+                if (!enqueue(SseEmitter.event().id(event.getSequence().toString()).name("change").data(event))) {
+                    return;
+                }
+                cursor = event.getSequence();
+            }
+        }
+
+        void heartbeat() {
+            enqueue(SseEmitter.event().comment("heartbeat"));
+        }
+
+        private boolean enqueue(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                drop(new IllegalStateException("Change feed stream fell " + queueCapacity + " events behind"));
+                return false;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        /* one drain per stream at a time keeps its events in queue order */
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    changeFeedSender.execute(this::drain);
+                }
+                catch (TaskRejectedException e) {
+                    /* shutting down */
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            }
+            catch (IOException | IllegalStateException e) {
+                drop(e);
+                return;
+            }
+            finally {
+                draining.set(false);
+            }
+            /* an event queued after the last poll but before the flag was cleared */
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void drop(Exception e) {
+            subscribers.remove(this);
+            queue.clear();
+            emitter.completeWithError(e);
+        }
+    }
+}
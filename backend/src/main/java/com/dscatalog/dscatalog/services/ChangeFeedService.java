@@ -0,0 +1,109 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.dto.ChangeEventDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
+import com.dscatalog.dscatalog.entities.OutboxEvent;
+import com.dscatalog.dscatalog.repositories.OutboxEventRepository;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.exceptions.ChangeFeedExpiredException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ * Outbox of catalog changes. Product and category writes append their event just before their transaction
+ * commits, so an event exists exactly when its change does; writes published outside a transaction are a bug
+ * and append nothing. ChangeFeedRelay numbers the appended events and streams them.
+ */
+@Service
+public class ChangeFeedService {
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        repository.save(new OutboxEvent(OutboxEvent.PRODUCT, event.getId(), event.getType()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        repository.save(new OutboxEvent(OutboxEvent.CATEGORY, event.getId(), event.getType()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendProductsCreated(Collection<Long> ids) {
+        repository.insertProductsCreated(ids, Instant.now());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ChangeEventDTO> findAfter(Long after, Integer size) {
+        int limit = KeysetCursor.limit(size);
+        checkCursor(after);
+        List<ChangeEventDTO> content = findPublished(after, limit);
+        Long next = content.isEmpty() ? after : content.get(content.size() - 1).getSequence();
+        return new CursorPageDTO<>(content, limit, next.toString());
+    }
+
+    /*
+     * Events before the first one still kept have been purged; resuming from such a cursor would skip them
+     * without notice, so the consumer has to start over from a full read of the catalog.
+     */
+    @Transactional(readOnly = true)
+    public void checkCursor(Long after) {
+        Long first = repository.findFirstSequence();
+        if (after < 0 || (first != null && after < first - 1)) {
+            throw new ChangeFeedExpiredException("Sequence " + after + " is no longer in the change feed, which starts at " + first);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long findLastSequence() {
+        Long last = repository.findLastSequence();
+        return last == null ? 0L : last;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ChangeEventDTO> findPublished(Long after, int limit) {
+        return repository.findPublishedAfter(after, PageRequest.of(0, limit)).stream()
+                .map(x -> new ChangeEventDTO(x)).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findPending(int limit) {
+        return repository.findPendingIds(PageRequest.of(0, limit));
+    }
+
+    /*
+     * Numbers the given events after the highest sequence handed out so far. Two relays racing on different
+     * instances would hand out the same numbers; the unique index lets only one of them commit.
+     */
+    @Transactional
+    public void assignSequences(List<Long> ids) {
+        long next = findLastSequence();
+        List<OutboxEvent> events = repository.findAllById(ids);
+        events.sort(Comparator.comparing(OutboxEvent::getId));
+        for (OutboxEvent event : events) {
+            /* numbered by another relay since they were found */
+            if (event.getFeedSequence() == null) {
+                event.setFeedSequence(++next);
+            }
+        }
+    }
+
+    @Transactional
+    public int purge(Instant before) {
+        return repository.deletePublishedBefore(before);
+    }
+}
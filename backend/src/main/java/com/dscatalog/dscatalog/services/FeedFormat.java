@@ -0,0 +1,37 @@
+package com.dscatalog.dscatalog.services;
+
+import org.springframework.http.MediaType;
+
+/*
+ * Line oriented formats accepted by the product import and produced by the product export.
+ */
+public enum FeedFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    FeedFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static FeedFormat fromContentType(String contentType) {
+        MediaType type = MediaType.parseMediaType(contentType);
+        for (FeedFormat format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).includes(type)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+}
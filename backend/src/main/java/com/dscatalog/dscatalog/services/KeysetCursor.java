@@ -0,0 +1,61 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.services.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Opaque cursor for keyset pagination: the (sort key, id) of the last row of a page,
+ * encoded as url-safe base64 so clients treat it as a token and never build it themselves.
+ * A null sort key is encoded as the id alone, so it is told apart from the name "null".
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final String key;
+    private final Long id;
+
+    private KeysetCursor(String key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public static int limit(Integer size) {
+        if (size == null || size < 1) {
+            return 1;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public static String encode(String key, Long id) {
+        String raw = (key == null) ? String.valueOf(id) : id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep < 0) {
+                return new KeysetCursor(null, Long.valueOf(raw));
+            }
+            if (sep == 0) {
+                throw new InvalidCursorException("Invalid cursor " + cursor);
+            }
+            return new KeysetCursor(raw.substring(sep + 1), Long.valueOf(raw.substring(0, sep)));
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor " + cursor);
+        }
+    }
+}
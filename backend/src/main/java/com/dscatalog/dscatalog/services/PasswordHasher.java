@@ -0,0 +1,35 @@
+package com.dscatalog.dscatalog.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Hashes passwords on the CPU-sized hash pool, away from request threads and database connections.
+ * A full pool rejects the call with TaskRejectedException, which is answered with 503.
+ * Hash times are published as dscatalog.password.hash.
+ */
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("hashExecutor")
+    private AsyncTaskExecutor hashExecutor;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        Timer timer = registry.timer("dscatalog.password.hash");
+        return CompletableFuture.supplyAsync(() -> timer.record(() -> passwordEncoder.encode(rawPassword)), hashExecutor);
+    }
+}
@@ -0,0 +1,124 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.projections.ProductCategoryProjection;
+import com.dscatalog.dscatalog.repositories.ProductRepository;
+import com.dscatalog.dscatalog.services.csv.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Writes the whole catalog row by row from a forward-only cursor. Rows are read as DTO projections,
+ * so nothing accumulates in the persistence context and heap use does not grow with the catalog.
+ * Categories come from a second cursor over the association in the same product order, merged in as each
+ * product is written.
+ * Writes block while the client is slow to read, which in turn stops fetching from the cursor.
+ */
+@Service
+public class ProductExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(FeedFormat format, OutputStream out) throws IOException {
+        try (Stream<ProductDTO> stream = repository.streamAll();
+             Stream<ProductCategoryProjection> categories = repository.streamAllCategories()) {
+            Iterator<ProductDTO> products = new WithCategories(stream.iterator(), categories.iterator());
+            if (format == FeedFormat.NDJSON) {
+                writeNdjson(products, out);
+            }
+            else {
+                writeCsv(products, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<ProductDTO> products, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        while (products.hasNext()) {
+            writer.writeValue(generator, products.next());
+            generator.writeRaw('\n');
+            if (++count % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<ProductDTO> products, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        csv.writeRecord(Arrays.asList("id", "name", "description", "price", "imgUrl", "date", "categories"));
+        long count = 0;
+        while (products.hasNext()) {
+            ProductDTO dto = products.next();
+            csv.writeRecord(Arrays.asList(
+                    String.valueOf(dto.getId()),
+                    dto.getName(),
+                    dto.getDescription(),
+                    dto.getPrice() == null ? null : String.valueOf(dto.getPrice()),
+                    dto.getImgUrl(),
+                    dto.getDate() == null ? null : dto.getDate().toString(),
+                    dto.getCategories().stream().map(x -> String.valueOf(x.getId())).collect(Collectors.joining("|"))));
+            if (++count % FLUSH_INTERVAL == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+    }
+
+    /* both cursors are ordered by product id, so each product takes the association rows up to its own id */
+    private static class WithCategories implements Iterator<ProductDTO> {
+
+        private final Iterator<ProductDTO> products;
+        private final Iterator<ProductCategoryProjection> categories;
+        private ProductCategoryProjection next;
+
+        WithCategories(Iterator<ProductDTO> products, Iterator<ProductCategoryProjection> categories) {
+            this.products = products;
+            this.categories = categories;
+            this.next = categories.hasNext() ? categories.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return products.hasNext();
+        }
+
+        @Override
+        public ProductDTO next() {
+            ProductDTO dto = products.next();
+            while (next != null && next.getProductId() <= dto.getId()) {
+                if (next.getProductId().equals(dto.getId())) {
+                    dto.getCategories().add(new CategoryDTO(next.getCategoryId(), next.getCategoryName()));
+                }
+                next = categories.hasNext() ? categories.next() : null;
+            }
+            return dto;
+        }
+    }
+}
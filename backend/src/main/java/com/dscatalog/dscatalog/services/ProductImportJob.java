@@ -0,0 +1,93 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.dto.ImportChunkDTO;
+import com.dscatalog.dscatalog.dto.ImportErrorDTO;
+import com.dscatalog.dscatalog.dto.ImportJobDTO;
+import com.dscatalog.dscatalog.dto.ImportStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Mutable progress of one import, written by the import thread and read by status requests.
+ */
+class ProductImportJob {
+
+    private static final int MAX_ERRORS = 1000;
+
+    private final String id;
+    private final FeedFormat format;
+    private final Instant createdAt = Instant.now();
+
+    private ImportStatus status = ImportStatus.QUEUED;
+    private long records;
+    private long imported;
+    private long failed;
+    private Instant finishedAt;
+
+    private final List<ImportChunkDTO> chunks = new ArrayList<>();
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+    ProductImportJob(String id, FeedFormat format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    FeedFormat getFormat() {
+        return format;
+    }
+
+    synchronized void start() {
+        status = ImportStatus.RUNNING;
+    }
+
+    synchronized void recordRead() {
+        records++;
+    }
+
+    synchronized void recordFailed(long record, String message) {
+        failed++;
+        addError(record, message);
+    }
+
+    synchronized int nextChunkNumber() {
+        return chunks.size() + 1;
+    }
+
+    synchronized void chunkCompleted(ImportChunkDTO chunk) {
+        chunks.add(chunk);
+        imported += chunk.getImported();
+    }
+
+    synchronized void chunkFailed(ImportChunkDTO chunk, int size) {
+        chunks.add(chunk);
+        failed += size;
+        addError(chunk.getFirstRecord(), chunk.getError());
+    }
+
+    synchronized void finish(String error) {
+        if (error != null) {
+            addError(null, error);
+        }
+        status = (error == null) ? ImportStatus.COMPLETED : ImportStatus.FAILED;
+        finishedAt = Instant.now();
+    }
+
+    synchronized ImportJobDTO toDTO() {
+        ImportJobDTO dto = new ImportJobDTO(id, format.name(), status, records, imported, failed, createdAt, finishedAt);
+        dto.setChunks(new ArrayList<>(chunks));
+        dto.setErrors(new ArrayList<>(errors));
+        return dto;
+    }
+
+    private void addError(Long record, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportErrorDTO(record, message));
+        }
+    }
+}
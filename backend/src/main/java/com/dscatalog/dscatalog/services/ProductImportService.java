@@ -0,0 +1,296 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ImportChunkDTO;
+import com.dscatalog.dscatalog.dto.ImportJobDTO;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.entities.Category;
+import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.repositories.CategoryRepository;
+import com.dscatalog.dscatalog.services.csv.CsvReader;
+import com.dscatalog.dscatalog.services.events.ProductsImportedEvent;
+import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Bulk product import. The request body is spooled to a temporary file so the request returns
+ * immediately; a background job then streams the file and writes chunks of CHUNK_SIZE products,
+ * each in its own transaction, relying on sequence ids and hibernate.jdbc.batch_size for batched inserts.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductSearchService searchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private TaskExecutor importExecutor;
+
+    private final Cache<String, ProductImportJob> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(24))
+            .maximumSize(1000)
+            .build();
+
+    public ImportJobDTO submit(InputStream body, FeedFormat format) throws IOException {
+        Path file = Files.createTempFile("product-import-", "." + format.getExtension());
+        Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, file));
+        }
+        catch (TaskRejectedException e) {
+            jobs.invalidate(job.getId());
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    public ImportJobDTO findJob(String id) {
+        ProductImportJob job = jobs.getIfPresent(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found " + id);
+        }
+        return job.toDTO();
+    }
+
+    private void run(ProductImportJob job, Path file) {
+        job.start();
+        String error = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<Long, Category> categories = categoryRepository.findAll().stream()
+                    .collect(Collectors.toMap(Category::getId, Function.identity()));
+            ChunkWriter writer = new ChunkWriter(job);
+            if (job.getFormat() == FeedFormat.NDJSON) {
+                readNdjson(reader, job, categories, writer);
+            }
+            else {
+                readCsv(reader, job, categories, writer);
+            }
+            writer.flush();
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.error("Product import {} failed", job.getId(), e);
+            error = e.getMessage();
+        }
+        finally {
+            job.finish(error);
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                LOG.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ProductImportJob job, Map<Long, Category> categories,
+                            ChunkWriter writer) throws IOException {
+        long record = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            record++;
+            job.recordRead();
+            try {
+                ProductDTO dto = objectMapper.readValue(line, ProductDTO.class);
+                writer.add(record, toEntity(dto, categories));
+            }
+            catch (IOException | RuntimeException e) {
+                job.recordFailed(record, e.getMessage());
+            }
+        }
+    }
+
+    /*
+     * Columns are matched by header name: name, description, price, imgUrl, date and categories,
+     * the latter holding category ids separated by '|'.
+     */
+    private void readCsv(BufferedReader reader, ProductImportJob job, Map<Long, Category> categories,
+                         ChunkWriter writer) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        long record = 0;
+        List<String> fields;
+        while ((fields = csv.readRecord()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            record++;
+            job.recordRead();
+            try {
+                ProductDTO dto = new ProductDTO();
+                dto.setName(field(fields, columns, "name"));
+                dto.setDescription(field(fields, columns, "description"));
+                String price = field(fields, columns, "price");
+                dto.setPrice(price == null ? null : Double.valueOf(price));
+                dto.setImgUrl(field(fields, columns, "imgurl"));
+                String date = field(fields, columns, "date");
+                dto.setDate(date == null ? null : Instant.parse(date));
+                String ids = field(fields, columns, "categories");
+                if (ids != null) {
+                    for (String id : ids.split("\\|")) {
+                        dto.getCategories().add(new CategoryDTO(Long.valueOf(id.trim()), null));
+                    }
+                }
+                writer.add(record, toEntity(dto, categories));
+            }
+            catch (RuntimeException e) {
+                job.recordFailed(record, e.getMessage());
+            }
+        }
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isBlank()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private Product toEntity(ProductDTO dto, Map<Long, Category> categories) {
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (dto.getPrice() == null) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        Product entity = new Product(null, dto.getName(), dto.getDescription(), dto.getPrice(), dto.getImgUrl(), dto.getDate());
+        for (CategoryDTO catDto : dto.getCategories()) {
+            Category category = categories.get(catDto.getId());
+            if (category == null) {
+                throw new IllegalArgumentException("Category not found " + catDto.getId());
+            }
+            entity.getCategories().add(category);
+        }
+        return entity;
+    }
+
+    private class ChunkWriter {
+
+        private final ProductImportJob job;
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        private final List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+        private long firstRecord;
+        private long lastRecord;
+
+        ChunkWriter(ProductImportJob job) {
+            this.job = job;
+        }
+
+        void add(long record, Product product) {
+            if (chunk.isEmpty()) {
+                firstRecord = record;
+            }
+            lastRecord = record;
+            chunk.add(product);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            int number = job.nextChunkNumber();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    chunk.forEach(entityManager::persist);
+                    entityManager.flush();
+                    changeFeed.appendProductsCreated(chunk.stream().map(Product::getId).collect(Collectors.toList()));
+                    entityManager.clear();
+                });
+            }
+            catch (RuntimeException e) {
+                LOG.warn("Chunk {} of product import {} failed", number, job.getId(), e);
+                job.chunkFailed(new ImportChunkDTO(number, firstRecord, lastRecord, 0, e.getMessage()), chunk.size());
+                chunk.clear();
+                return;
+            }
+            /* the rows are committed from here on, so whatever fails below must not report the chunk as failed */
+            job.chunkCompleted(new ImportChunkDTO(number, firstRecord, lastRecord, chunk.size(), null));
+            try {
+                searchService.index(chunk);
+            }
+            catch (RuntimeException e) {
+                LOG.warn("Could not index chunk {} of product import {}, the next rebuild picks it up", number, job.getId(), e);
+            }
+            try {
+                publisher.publishEvent(new ProductsImportedEvent(chunk.size()));
+            }
+            catch (RuntimeException e) {
+                LOG.warn("Could not publish chunk {} of product import {}", number, job.getId(), e);
+            }
+            chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.repositories.ProductRepository;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductSearchService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private ProductRepository repository;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+
+    /* while a rebuild runs, live changes go to both indexes and their ids keep older batch rows out of the new one */
+    private ProductSearchIndex building;
+    private Set<Long> changedDuringRebuild;
+
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> search(String query, Pageable pageable) {
+        List<Long> ranked = index.search(query);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        List<Long> ids = ranked.subList(from, to);
+
+        List<ProductDTO> content = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            Map<Long, Product> products = repository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (Long id : ids) {
+                Product product = products.get(id);
+                if (product != null) {
+                    content.add(new ProductDTO(product));
+                }
+            }
+        }
+        return new PageImpl<>(content, pageable, ranked.size());
+    }
+
+    public void index(Collection<Product> products) {
+        products.forEach(x -> apply(x.getId(), target -> target.put(x.getId(), x.getName(), x.getDescription())));
+    }
+
+    /*
+     * Fills a fresh index off to the side and swaps it in, so searches keep using the current one until it is
+     * complete. Batches are read from the primary, as a lagging replica would index rows that stay stale until the
+     * product changes again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        startRebuild(fresh);
+        try {
+            Pageable batch = PageRequest.of(0, REBUILD_BATCH_SIZE);
+            List<Product> list = PrimaryPin.call(() -> repository.findBatchAfter(0L, batch));
+            while (!list.isEmpty()) {
+                putBatch(fresh, list);
+                Long last = list.get(list.size() - 1).getId();
+                list = PrimaryPin.call(() -> repository.findBatchAfter(last, batch));
+            }
+            finishRebuild(fresh);
+        }
+        finally {
+            abandonRebuild(fresh);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ChangeType.DELETE) {
+            apply(event.getId(), target -> target.remove(event.getId()));
+            return;
+        }
+        /* from the primary, as a read replica may not have the committed change yet */
+        PrimaryPin.call(() -> repository.findById(event.getId()))
+                .ifPresent(x -> apply(x.getId(), target -> target.put(x.getId(), x.getName(), x.getDescription())));
+    }
+
+    private synchronized void apply(Long id, Consumer<ProductSearchIndex> change) {
+        change.accept(index);
+        if (building != null) {
+            change.accept(building);
+            changedDuringRebuild.add(id);
+        }
+    }
+
+    private synchronized void startRebuild(ProductSearchIndex fresh) {
+        building = fresh;
+        changedDuringRebuild = new HashSet<>();
+    }
+
+    /* a row read before a live change to the same product was applied would overwrite it with older values */
+    private synchronized void putBatch(ProductSearchIndex fresh, List<Product> list) {
+        for (Product x : list) {
+            if (!changedDuringRebuild.contains(x.getId())) {
+                fresh.put(x.getId(), x.getName(), x.getDescription());
+            }
+        }
+    }
+
+    private synchronized void finishRebuild(ProductSearchIndex fresh) {
+        index = fresh;
+        abandonRebuild(fresh);
+    }
+
+    private synchronized void abandonRebuild(ProductSearchIndex fresh) {
+        if (building == fresh) {
+            building = null;
+            changedDuringRebuild = null;
+        }
+    }
+}
@@ -1,44 +1,181 @@
 package com.dscatalog.dscatalog.services;
 
+import com.dscatalog.dscatalog.config.CacheConfig;
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
 import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
 import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.entities.Product;
+import com.dscatalog.dscatalog.projections.ProductProjection;
 import com.dscatalog.dscatalog.repositories.CategoryRepository;
 import com.dscatalog.dscatalog.repositories.ProductRepository;
+import com.dscatalog.dscatalog.services.events.CategoryChangedEvent;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
+import com.dscatalog.dscatalog.services.exceptions.InvalidSortException;
+import com.dscatalog.dscatalog.services.exceptions.PreconditionFailedException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    private static final Map<String, String> FILTER_SORT_COLUMNS = Map.of(
+            "id", "id", "name", "name", "description", "description", "price", "price",
+            "imgUrl", "img_url", "date", "date");
+
     @Autowired
     private ProductRepository repository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private TotalCountCache counts;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /* bumped by every committed change that drops cached details */
+    private long cacheGeneration;
+
     @Transactional(readOnly = true)
     public Page<ProductDTO> findAllPaged(Pageable pageable) {
-        Page<Product> list = repository.findAll(pageable);
-        return list.map(x -> new ProductDTO(x));
+        return counts.page(findAllSliced(pageable), TotalCountCache.PRODUCTS, repository::count);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findAllSliced(Pageable pageable) {
+        return repository.findAllSummaries(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> findAllPagedWithCategories(Pageable pageable) {
+        return counts.page(findAllSlicedWithCategories(pageable), TotalCountCache.PRODUCTS, repository::count);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findAllSlicedWithCategories(Pageable pageable) {
+        Slice<Product> list = repository.findSlice(pageable);
+        if (list.hasContent()) {
+            List<Long> ids = list.map(x -> x.getId()).getContent();
+            repository.findProductsWithCategories(ids);
+        }
+        return list.map(x -> new ProductDTO(x, x.getCategories()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> findAllFiltered(Long categoryId, String name, Pageable pageable) {
+        String key = TotalCountCache.key(TotalCountCache.PRODUCTS, "categoryId", categoryId, "name", name.toUpperCase(Locale.ROOT));
+        String pattern = escapeLike(name);
+        return counts.page(findAllFilteredSliced(categoryId, name, pageable), key, () -> (categoryId == null)
+                ? repository.countProducts(pattern)
+                : repository.countProductsByCategory(categoryId, pattern));
+    }
+
+    /*
+     * Pages the matching ids first and only then loads the entities with their categories,
+     * so the join table never multiplies rows of the paged query. The id ends every ordering, so products
+     * sharing a name keep their place from one page to the next.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findAllFilteredSliced(Long categoryId, String name, Pageable pageable) {
+        Pageable ordered = toFilterColumns(pageable);
+        String pattern = escapeLike(name);
+        Slice<ProductProjection> slice = (categoryId == null)
+                ? repository.searchProducts(pattern, ordered)
+                : repository.searchProductsByCategory(categoryId, pattern, ordered);
+        List<Long> ids = slice.map(x -> x.getId()).getContent();
+        List<ProductDTO> content = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            Map<Long, Product> products = repository.findProductsWithCategories(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a));
+            for (Long id : ids) {
+                Product product = products.get(id);
+                content.add(new ProductDTO(product, product.getCategories()));
+            }
+        }
+        return new SliceImpl<>(content, pageable, slice.hasNext());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> findAllAfter(String cursor, Integer size) {
+        int limit = KeysetCursor.limit(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Product> list;
+        if (cursor == null || cursor.isEmpty()) {
+            list = repository.findFirstPage(pageable);
+        }
+        else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            list = (after.getKey() == null)
+                    ? repository.findPageAfterNullName(after.getId(), pageable)
+                    : repository.findPageAfter(after.getKey(), after.getId(), pageable);
+        }
+        String nextCursor = null;
+        if (list.size() > limit) {
+            list = list.subList(0, limit);
+            Product last = list.get(limit - 1);
+            nextCursor = KeysetCursor.encode(last.getName(), last.getId());
+        }
+        List<ProductDTO> content = list.stream().map(x -> new ProductDTO(x)).collect(Collectors.toList());
+        return new CursorPageDTO<>(content, limit, nextCursor);
+    }
+
+    /*
+     * A DTO loaded before a write commits could otherwise land in the cache after the write evicted it, so it is
+     * only stored when no product or category change was committed during the load.
+     */
     @Transactional(readOnly = true)
     public ProductDTO findById(Long id) {
-        Optional<Product> obj = repository.findById(id);
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        ProductDTO cached = cache.get(id, ProductDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = currentCacheGeneration();
+        /* every call fills the cache shared by all clients, so it reads the primary */
+        Optional<Product> obj = PrimaryPin.call(() -> repository.findById(id));
         Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-        return new ProductDTO(entity, entity.getCategories());
+        ProductDTO dto = new ProductDTO(entity, entity.getCategories());
+        synchronized (this) {
+            if (cacheGeneration == seen) {
+                /* putIfAbsent is immediate, a put would be deferred to the commit and escape the check */
+                cache.putIfAbsent(id, dto);
+            }
+        }
+        return dto;
     }
 
     @Transactional
@@ -46,25 +183,36 @@ public class ProductService {
         Product entity = new Product();
         copyDtoToEntity(dto, entity);
         entity = repository.save(entity);
+        publisher.publishEvent(new ProductChangedEvent(entity.getId(), ChangeType.INSERT));
         return new ProductDTO(entity);
     }
 
     @Transactional
-    public ProductDTO update(Long id, ProductDTO dto) {
+    public ProductDTO update(Long id, ProductDTO dto, Set<Integer> expectedVersions) {
         try {
             Product entity = repository.getOne(id);
+            if (expectedVersions != null && !expectedVersions.contains(entity.getVersion())) {
+                throw new PreconditionFailedException("Versions " + expectedVersions + " are no longer current");
+            }
             copyDtoToEntity(dto, entity);
-            entity = repository.save(entity);
-            return new ProductDTO(entity);
+            /* flush now so the returned DTO carries the incremented version */
+            entity = repository.saveAndFlush(entity);
+            publisher.publishEvent(new ProductChangedEvent(entity.getId(), ChangeType.UPDATE));
+            /* with its categories, as findById returns it, so the ETag of the response matches a later GET */
+            return new ProductDTO(entity, entity.getCategories());
         }
         catch (EntityNotFoundException e) {
             throw new ResourceNotFoundException("Id not found" + id);
         }
     }
 
+    @Transactional
     public void delete(Long id) {
         try {
             repository.deleteById(id);
+            /* a violated foreign key surfaces here rather than at commit */
+            repository.flush();
+            publisher.publishEvent(new ProductChangedEvent(id, ChangeType.DELETE));
         }
         catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Id not found " + id);
@@ -74,6 +222,51 @@ public class ProductService {
         }
     }
 
+    /*
+     * Cached details embed the names of their categories, so a renamed or deleted category drops them all.
+     * invalidate() clears at once; an evict deferred to the commit would be registered too late to run here.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != ChangeType.INSERT) {
+            cacheGeneration++;
+            cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ChangeType.INSERT) {
+            cacheGeneration++;
+            cacheManager.getCache(CacheConfig.PRODUCTS).evictIfPresent(event.getId());
+        }
+    }
+
+    private synchronized long currentCacheGeneration() {
+        return cacheGeneration;
+    }
+
+    /* the filtered queries are native, so sort properties are mapped to their columns; anything else is a 400 */
+    private static Pageable toFilterColumns(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String column = FILTER_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidSortException("Cannot sort by " + order.getProperty());
+            }
+            orders.add(order.withProperty(column));
+        }
+        if (orders.stream().noneMatch(x -> x.getProperty().equals("id"))) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    /* a name such as "50%" or "a_b" is matched literally */
+    private static String escapeLike(String name) {
+        return name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private void copyDtoToEntity(ProductDTO dto, Product entity) {
 
         entity.setName(dto.getName());
@@ -82,12 +275,24 @@ public class ProductService {
         entity.setPrice(dto.getPrice());
         entity.setImgUrl(dto.getImgUrl());
 
-        entity.getCategories().clear();
+        Set<Long> ids = dto.getCategories().stream().map(CategoryDTO::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+        /* retain and add rather than clear and refill, so Hibernate only writes the association rows that changed */
+        entity.getCategories().removeIf(x -> !ids.contains(x.getId()));
+        ids.removeAll(entity.getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+        if (!ids.isEmpty()) {
+            entity.getCategories().addAll(findCategories(ids));
+        }
+    }
 
-        for (CategoryDTO catDto : dto.getCategories()) {
-            Category category = categoryRepository.getOne(catDto.getId());
-            entity.getCategories().add(category);
+    private List<Category> findCategories(Set<Long> ids) {
+        List<Category> categories = categoryRepository.findAllById(ids);
+        if (categories.size() != ids.size()) {
+            Set<Long> missing = new TreeSet<>(ids);
+            categories.forEach(x -> missing.remove(x.getId()));
+            throw new ResourceNotFoundException("Category not found " + missing);
         }
+        return categories;
     }
 
 }
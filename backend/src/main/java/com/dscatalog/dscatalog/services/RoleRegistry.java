@@ -0,0 +1,78 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.datasource.PrimaryPin;
+import com.dscatalog.dscatalog.dto.RoleDTO;
+import com.dscatalog.dscatalog.entities.Role;
+import com.dscatalog.dscatalog.repositories.RoleRepository;
+import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Immutable snapshot of tb_role, which holds a handful of rows that practically never change.
+ * Loaded at startup and replaced as a whole by refresh(); an unknown id triggers a refresh, so roles
+ * inserted directly in the database are picked up without a restart. Misses wait for each other, and one that
+ * finds a refresh started after it skips its own, so concurrent misses share a single table read. An id still
+ * missing after a refresh does not trigger another for RELOAD_INTERVAL, which only holds back that id.
+ * The Role instances are detached and only ever used as references, e.g. in User.roles.
+ */
+@Component
+public class RoleRegistry {
+
+    @Autowired
+    private RoleRepository repository;
+
+    private static final Duration RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private volatile Map<Long, Role> roles = Map.of();
+
+    /* System.nanoTime() at the start of the last refresh */
+    private long refreshedFrom = System.nanoTime();
+
+    private final Cache<Long, Boolean> missing = Caffeine.newBuilder()
+            .expireAfterWrite(RELOAD_INTERVAL)
+            .maximumSize(1000)
+            .build();
+
+    /* from the primary, as a role missing here may be too new for a read replica */
+    @PostConstruct
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        roles = PrimaryPin.call(() -> repository.findAll()).stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getId, Function.identity()));
+        refreshedFrom = start;
+    }
+
+    public Role get(Long id) {
+        Role role = roles.get(id);
+        if (role == null) {
+            role = reload(id, System.nanoTime());
+        }
+        return role;
+    }
+
+    private synchronized Role reload(Long id, long missedAt) {
+        Role role = roles.get(id);
+        if (role == null && refreshedFrom - missedAt < 0 && missing.getIfPresent(id) == null) {
+            refresh();
+            role = roles.get(id);
+        }
+        if (role == null) {
+            missing.put(id, Boolean.TRUE);
+            throw new ResourceNotFoundException("Role not found " + id);
+        }
+        return role;
+    }
+
+    public RoleDTO toDto(Long id) {
+        return new RoleDTO(get(id));
+    }
+}
@@ -0,0 +1,152 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.datasource.ReadWriteRoutingDataSource;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.events.ProductsImportedEvent;
+import com.dscatalog.dscatalog.services.events.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.LongSupplier;
+
+/*
+ * Total row counts of the paged listings, keyed by table and filter, e.g. "products" or
+ * "products?categoryId=3&name=PC". The unfiltered totals are adjusted by one on every committed insert and delete.
+ * Whether a row matches a filter is not known from the event, so filtered totals are dropped on every change.
+ *
+ * A write is registered when its event is published, inside its transaction, and settled after completion.
+ * A total counted while a write was in flight may or may not include that row, so it is never stored, and it is
+ * dropped rather than adjusted if it was stored meanwhile. Writes published outside a transaction have already
+ * committed, so their totals are dropped as well. A total counted on a read replica may miss recent writes, so it
+ * is returned but not stored either.
+ */
+public class TotalCountCache implements MeterBinder {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+
+    private final Cache<String, Total> cache;
+    private long generation;
+
+    public TotalCountCache(String spec) {
+        this.cache = Caffeine.from(spec).build();
+    }
+
+    public <T> Page<T> page(Slice<T> slice, String key, LongSupplier counter) {
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> get(key, counter));
+    }
+
+    public long get(String key, LongSupplier counter) {
+        Total cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.value;
+        }
+        long seen = currentGeneration();
+        long value = counter.getAsLong();
+        synchronized (this) {
+            if (generation == seen && !ReadWriteRoutingDataSource.isReplicaRead()) {
+                cache.put(key, new Total(value, seen));
+            }
+        }
+        return value;
+    }
+
+    public static String key(String table, Object... filter) {
+        StringBuilder key = new StringBuilder(table);
+        for (int i = 0; i < filter.length; i += 2) {
+            key.append(i == 0 ? '?' : '&').append(filter[i]).append('=').append(filter[i + 1]);
+        }
+        return key.toString();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        register(PRODUCTS, delta(event.getType()));
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        register(PRODUCTS, null);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        register(USERS, delta(event.getType()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.invalidateAll();
+    }
+
+    /* hit ratio, size and evictions under cache.* with cache=counts */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "counts");
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /* a null delta drops the unfiltered total instead of adjusting it */
+    private void register(String table, Long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(table, null, currentGeneration(), true);
+            return;
+        }
+        long started;
+        synchronized (this) {
+            started = ++generation;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(table, delta, started, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private synchronized void settle(String table, Long delta, long started, boolean committed) {
+        generation++;
+        if (!committed) {
+            return;
+        }
+        cache.asMap().computeIfPresent(table, (key, total) ->
+                delta == null || total.generation >= started ? null : new Total(total.value + delta, total.generation));
+        cache.asMap().keySet().removeIf(key -> key.startsWith(table + "?"));
+    }
+
+    private static Long delta(ChangeType type) {
+        switch (type) {
+            case INSERT:
+                return 1L;
+            case DELETE:
+                return -1L;
+            default:
+                return 0L;
+        }
+    }
+
+    private static final class Total {
+
+        private final long value;
+        /* generation the total was counted in; writes registered later are not part of it */
+        private final long generation;
+
+        Total(long value, long generation) {
+            this.value = value;
+            this.generation = generation;
+        }
+    }
+}
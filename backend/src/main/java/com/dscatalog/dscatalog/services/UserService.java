@@ -5,56 +5,90 @@ import com.dscatalog.dscatalog.dto.RoleDTO;
 import com.dscatalog.dscatalog.dto.UserDTO;
 import com.dscatalog.dscatalog.dto.UserInsertDTO;
 import com.dscatalog.dscatalog.entities.Category;
-import com.dscatalog.dscatalog.entities.Role;
 import com.dscatalog.dscatalog.entities.User;
+import com.dscatalog.dscatalog.projections.UserRoleProjection;
 import com.dscatalog.dscatalog.repositories.CategoryRepository;
-import com.dscatalog.dscatalog.repositories.RoleRepository;
 import com.dscatalog.dscatalog.repositories.UserRepository;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.UserChangedEvent;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private UserRepository repository;
 
     @Autowired
-    private UserRepository repository;
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private TotalCountCache counts;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private ApplicationEventPublisher publisher;
 
     @Transactional(readOnly = true)
     public Page<UserDTO> findAllPaged(Pageable pageable) {
-        Page<User> list = repository.findAll(pageable);
-        return list.map(x -> new UserDTO(x));
+        return counts.page(findAllSliced(pageable), TotalCountCache.USERS, repository::count);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> findAllSliced(Pageable pageable) {
+        Slice<User> list = repository.findSlice(pageable);
+        Map<Long, Set<RoleDTO>> roles = findRoles(list.map(x -> x.getId()).getContent());
+        return list.map(x -> new UserDTO(x, roles.getOrDefault(x.getId(), Set.of())));
     }
 
     @Transactional(readOnly = true)
     public UserDTO findById(Long id) {
         Optional<User> obj = repository.findById(id);
         User entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-        return new UserDTO(entity);
+        return new UserDTO(entity, findRoles(List.of(id)).getOrDefault(id, Set.of()));
+    }
+
+    /*
+     * Role membership of a whole page in one query on the join table; the roles themselves come from the registry.
+     */
+    private Map<Long, Set<RoleDTO>> findRoles(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Set<RoleDTO>> roles = new HashMap<>();
+        for (UserRoleProjection row : repository.findRoleIds(userIds)) {
+            roles.computeIfAbsent(row.getUserId(), k -> new HashSet<>()).add(roleRegistry.toDto(row.getRoleId()));
+        }
+        return roles;
     }
 
+    /*
+     * Takes the password already hashed by PasswordHasher, so no hashing happens inside the transaction.
+     */
     @Transactional
-    public UserDTO insert(UserInsertDTO dto) {
+    public UserDTO insert(UserInsertDTO dto, String passwordHash) {
         User entity = new User();
         copyDtoToEntity(dto, entity);
-        entity.setPassword(passwordEncoder.encode(dto.getPassword()));
+        entity.setPassword(passwordHash);
         entity = repository.save(entity);
+        publisher.publishEvent(new UserChangedEvent(entity.getId(), ChangeType.INSERT));
         return new UserDTO(entity);
     }
 
@@ -64,6 +98,7 @@ public class UserService {
             User entity = repository.getOne(id);
             copyDtoToEntity(dto, entity);
             entity = repository.save(entity);
+            publisher.publishEvent(new UserChangedEvent(entity.getId(), ChangeType.UPDATE));
             return new UserDTO(entity);
         }
         catch (EntityNotFoundException e) {
@@ -74,6 +109,7 @@ public class UserService {
     public void delete(Long id) {
         try {
             repository.deleteById(id);
+            publisher.publishEvent(new UserChangedEvent(id, ChangeType.DELETE));
         }
         catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Id not found " + id);
@@ -92,8 +128,7 @@ public class UserService {
         entity.getRoles().clear();
 
         for (RoleDTO roleDTO : dto.getRoles()) {
-            Role role = roleRepository.getOne(roleDTO.getId());
-            entity.getRoles().add(role);
+            entity.getRoles().add(roleRegistry.get(roleDTO.getId()));
         }
     }
 
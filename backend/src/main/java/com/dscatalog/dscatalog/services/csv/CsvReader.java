@@ -0,0 +1,86 @@
+package com.dscatalog.dscatalog.services.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Minimal RFC 4180 reader: comma separated, double quoted fields may contain commas,
+ * escaped quotes ("") and line breaks. Reads one record at a time so large files stream.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private int next = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /*
+     * Returns the fields of the next record, or null at end of input.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        field.append('"');
+                    }
+                    else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                }
+                else {
+                    field.append((char) c);
+                }
+            }
+            else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else if (c == '\n' || c == -1) {
+                break;
+            }
+            else if (c == '\r') {
+                int peek = read();
+                if (peek != '\n') {
+                    next = peek;
+                }
+                break;
+            }
+            else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
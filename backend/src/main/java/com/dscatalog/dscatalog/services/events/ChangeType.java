@@ -0,0 +1,7 @@
+package com.dscatalog.dscatalog.services.events;
+
+public enum ChangeType {
+    INSERT,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,20 @@
+package com.dscatalog.dscatalog.services.events;
+
+public class ProductChangedEvent {
+
+    private final Long id;
+    private final ChangeType type;
+
+    public ProductChangedEvent(Long id, ChangeType type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+}
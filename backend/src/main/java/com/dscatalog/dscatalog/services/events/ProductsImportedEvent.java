@@ -0,0 +1,17 @@
+package com.dscatalog.dscatalog.services.events;
+
+/*
+ * Published after each committed import chunk, instead of one ProductChangedEvent per row.
+ */
+public class ProductsImportedEvent {
+
+    private final int count;
+
+    public ProductsImportedEvent(int count) {
+        this.count = count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dscatalog.dscatalog.services.exceptions;
+
+public class ChangeFeedExpiredException extends RuntimeException {
+    private static final long serialVersionUID = 4622018829930913064L;
+
+    public ChangeFeedExpiredException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dscatalog.dscatalog.services.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    private static final long serialVersionUID = -1187360716287318476L;
+
+    public InvalidCursorException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dscatalog.dscatalog.services.exceptions;
+
+public class InvalidSortException extends RuntimeException {
+    private static final long serialVersionUID = 5382160374194615208L;
+
+    public InvalidSortException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dscatalog.dscatalog.services.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    private static final long serialVersionUID = 4611539296181342270L;
+
+    public PreconditionFailedException(String msg) {
+        super(msg);
+    }
+}
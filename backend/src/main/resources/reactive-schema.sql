@@ -0,0 +1,13 @@
+CREATE SEQUENCE tb_product_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_user (id BIGINT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255) UNIQUE, password VARCHAR(255));
+CREATE TABLE tb_role (id BIGINT AUTO_INCREMENT PRIMARY KEY, authority VARCHAR(255));
+CREATE TABLE tb_user_role (user_id BIGINT NOT NULL, role_id BIGINT NOT NULL, PRIMARY KEY (user_id, role_id));
+
+CREATE TABLE tb_category (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), created_at TIMESTAMP WITHOUT TIME ZONE, update_at TIMESTAMP WITHOUT TIME ZONE, version INTEGER DEFAULT 0 NOT NULL);
+CREATE TABLE tb_product (id BIGINT PRIMARY KEY, name VARCHAR(255), description TEXT, price DOUBLE, img_url VARCHAR(255), date TIMESTAMP WITHOUT TIME ZONE, version INTEGER DEFAULT 0 NOT NULL);
+CREATE TABLE tb_product_category (product_id BIGINT NOT NULL, category_id BIGINT NOT NULL, PRIMARY KEY (product_id, category_id));
+
+CREATE INDEX idx_category_name_id ON tb_category (name, id);
+CREATE INDEX idx_product_name_id ON tb_product (name, id);
+CREATE INDEX idx_product_category_category_product ON tb_product_category (category_id, product_id);
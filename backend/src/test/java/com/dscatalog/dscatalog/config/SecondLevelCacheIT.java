@@ -0,0 +1,94 @@
+package com.dscatalog.dscatalog.config;
+
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.entities.Role;
+import com.dscatalog.dscatalog.repositories.CategoryRepository;
+import com.dscatalog.dscatalog.repositories.RoleRepository;
+import com.dscatalog.dscatalog.services.ProductService;
+import com.dscatalog.dscatalog.tests.QueryCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.Set;
+
+@SpringBootTest
+public class SecondLevelCacheIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+    }
+
+    @Test
+    void findByIdShouldHydrateCategoriesFromCacheOnceLoaded() {
+        queryCounter.start();
+        ProductDTO cold = productService.findById(2L);
+        queryCounter.assertStatements(2);
+        cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+        double hits = count("product.categories", "hit");
+
+        queryCounter.startWarm();
+        ProductDTO warm = productService.findById(2L);
+
+        // only the product row; its category ids and the categories come from the second-level cache
+        queryCounter.assertStatements(1);
+        Assertions.assertEquals(cold.getCategories().size(), warm.getCategories().size());
+        Assertions.assertEquals(hits + 1, count("product.categories", "hit"));
+    }
+
+    @Test
+    void findAllByIdShouldBeAnsweredFromQueryCacheWhenRepeated() {
+        queryCounter.start();
+        categoryRepository.findAllById(Set.of(1L, 3L));
+        queryCounter.assertStatements(1);
+
+        queryCounter.startWarm();
+        Assertions.assertEquals(2, categoryRepository.findAllById(Set.of(1L, 3L)).size());
+
+        queryCounter.assertStatements(0);
+    }
+
+    @Test
+    void findByIdShouldReadRoleFromCacheOnceLoaded() {
+        queryCounter.start();
+        roleRepository.findById(1L);
+        queryCounter.assertStatements(1);
+
+        queryCounter.startWarm();
+        Role role = roleRepository.findById(1L).orElseThrow();
+
+        queryCounter.assertStatements(0);
+        Assertions.assertEquals("ROLE_OPERATOR", role.getAuthority());
+    }
+
+    private double count(String region, String result) {
+        FunctionCounter counter = registry.find("hibernate.second.level.cache.requests")
+                .tags("region", region, "result", result).functionCounter();
+        Assertions.assertNotNull(counter, () -> "No cache metrics for region " + region);
+        return counter.count();
+    }
+}
@@ -0,0 +1,46 @@
+package com.dscatalog.dscatalog.config;
+
+import com.dscatalog.dscatalog.services.ProductService;
+import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class TimingAspectIT {
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void findByIdShouldRecordReadTimersForServiceAndRepository() {
+        long before = count("dscatalog.service", "ProductService", "findById", "none");
+
+        service.findById(1L);
+
+        Assertions.assertEquals(before + 1, count("dscatalog.service", "ProductService", "findById", "none"));
+        Timer repository = registry.find("dscatalog.repository")
+                .tags("class", "ProductRepository", "method", "findById", "operation", "read").timer();
+        Assertions.assertNotNull(repository);
+    }
+
+    @Test
+    void failingCallShouldBeTaggedWithExceptionName() {
+        long before = count("dscatalog.service", "ProductService", "findById", "ResourceNotFoundException");
+
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> service.findById(1000L));
+
+        Assertions.assertEquals(before + 1, count("dscatalog.service", "ProductService", "findById", "ResourceNotFoundException"));
+    }
+
+    private long count(String name, String type, String method, String exception) {
+        Timer timer = registry.find(name).tags("class", type, "method", method, "exception", exception).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,197 @@
+package com.dscatalog.dscatalog.datasource;
+
+import com.dscatalog.dscatalog.config.CacheConfig;
+import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.resources.filters.ListingResponseCacheFilter;
+import com.dscatalog.dscatalog.resources.filters.ReadYourWritesFilter;
+import com.dscatalog.dscatalog.services.TotalCountCache;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
+import com.dscatalog.dscatalog.tests.Factory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.servlet.http.Cookie;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Two H2 databases stand in for the primary and its replica. There is no replication between them: the replica
+ * is a copy taken before each test in which one product and one user are renamed and one user is added, so every
+ * response tells where it was read. Product reads fill shared caches and always go to the primary; user reads
+ * show the routing.
+ * A replica URL pointing at a database that does not exist sits in front of the real one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primarydb",
+        "dscatalog.datasource.replicas=" + ReadReplicaRoutingIT.MISSING_REPLICA_URL + "," + ReadReplicaRoutingIT.REPLICA_URL,
+        "dscatalog.datasource.replica.connection-timeout=250ms"})
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingIT {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+    static final String MISSING_REPLICA_URL = "jdbc:h2:mem:missingdb;IFEXISTS=TRUE";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ListingResponseCacheFilter listingCache;
+
+    @Autowired
+    private TotalCountCache counts;
+
+    @TempDir
+    Path tempDir;
+
+    private long existingId;
+
+    @BeforeEach
+    void setUp() {
+        existingId = 1L;
+        String script = tempDir.resolve("primary.sql").toString();
+        /* outside a transaction, so this runs on the primary */
+        jdbcTemplate.execute("SCRIPT TO '" + script + "'");
+        JdbcTemplate replica = new JdbcTemplate(new SingleConnectionDataSource(REPLICA_URL, "sa", "", true));
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM '" + script + "'");
+        replica.update("UPDATE tb_product SET name = 'Replica' WHERE id = ?", existingId);
+        replica.update("UPDATE tb_user SET first_name = 'Replica' WHERE id = ?", existingId);
+        replica.update("INSERT INTO tb_user (first_name, last_name, email, password) VALUES ('Lag', 'Lag', ?, 'x')",
+                "lag" + System.nanoTime() + "@gmail.com");
+        cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+        listingCache.invalidateAll();
+        counts.invalidateAll();
+    }
+
+    @Test
+    void findByIdShouldReadFromReplicaSkippingMissingOne() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users/{id}", existingId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.firstName").value("Replica"));
+        }
+    }
+
+    @Test
+    void sharedCachesShouldBeFilledFromPrimary() throws Exception {
+        String name = jdbcTemplate.queryForObject("SELECT name FROM tb_product WHERE id = ?", String.class, existingId);
+        long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user", Long.class);
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(name));
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(name));
+
+        /* the replica's total is answered but not kept, so the next pinned request counts on the primary */
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(users + 1));
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users").cookie(pinned()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(users));
+    }
+
+    @Test
+    void updateShouldPinClientToPrimaryForItsNextReads() throws Exception {
+        ProductDTO dto = Factory.createProductDTO();
+        dto.setName("Updated " + System.nanoTime());
+
+        Cookie pin = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
+                .content(objectMapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        Assertions.assertNotNull(pin);
+        String firstName = jdbcTemplate.queryForObject("SELECT first_name FROM tb_user WHERE id = ?", String.class, existingId);
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users/{id}", existingId).cookie(pinned()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(firstName));
+
+        /* without the pin the client goes back to the replica */
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Replica"));
+    }
+
+    @Test
+    void readShouldIgnorePinCookieEndingBeyondTheWindow() throws Exception {
+        Cookie forever = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(Long.MAX_VALUE));
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users/{id}", existingId).cookie(forever))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Replica"));
+    }
+
+    @Test
+    void writeShouldSetPinCookieEvenWhenItFails() throws Exception {
+        Cookie pin = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/products/{id}", 1000L))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        Assertions.assertNotNull(pin);
+        Assertions.assertEquals("/", pin.getPath());
+        Assertions.assertTrue(pin.isHttpOnly());
+    }
+
+    @Test
+    void changeFeedShouldCheckCursorsAgainstPrimary() throws Exception {
+        /* the primary has purged everything but its newest event, the replica has not caught up with the purge yet */
+        jdbcTemplate.update("INSERT INTO tb_outbox_event (feed_sequence, aggregate_type, aggregate_id, type, created_at) "
+                + "SELECT COALESCE(MAX(feed_sequence), 0) + 10, 'category', 1, 'UPDATE', CURRENT_TIMESTAMP FROM tb_outbox_event");
+        jdbcTemplate.update("DELETE FROM tb_outbox_event WHERE feed_sequence IS NULL "
+                + "OR feed_sequence < (SELECT MAX(feed_sequence) FROM tb_outbox_event)");
+        JdbcTemplate replica = new JdbcTemplate(new SingleConnectionDataSource(REPLICA_URL, "sa", "", true));
+        replica.update("DELETE FROM tb_outbox_event");
+        replica.update("INSERT INTO tb_outbox_event (feed_sequence, aggregate_type, aggregate_id, type, created_at) "
+                + "VALUES (1, 'category', 1, 'UPDATE', CURRENT_TIMESTAMP)");
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/changes").param("after", "0"))
+                .andExpect(status().isGone());
+        mockMvc.perform(MockMvcRequestBuilders.get("/changes/stream").header("Last-Event-ID", 0L))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void poolsShouldPublishHikariMetrics() {
+        for (String pool : new String[] {"primary", "replica-0", "replica-1"}) {
+            Assertions.assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", pool).gauge(), pool);
+        }
+    }
+
+    /* within the 5s read-your-writes window, as a later end cannot have been issued by the filter */
+    private static Cookie pinned() {
+        return new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 2_000));
+    }
+}
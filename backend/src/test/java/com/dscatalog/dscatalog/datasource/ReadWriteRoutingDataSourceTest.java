@@ -0,0 +1,161 @@
+package com.dscatalog.dscatalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+    private Connection primaryConnection;
+    private Connection replica1Connection;
+    private Connection replica2Connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        replica2 = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replica1Connection = mock(Connection.class);
+        replica2Connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PrimaryPin.set(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnectionShouldUsePrimaryOutsideReadOnlyTransactions() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(replica1, replica2);
+
+        assertSame(primaryConnection, routing.route());
+    }
+
+    @Test
+    void getConnectionShouldSpreadReadOnlyTransactionsOverReplicas() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(replica1, replica2);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica1Connection, routing.route());
+        assertSame(replica2Connection, routing.route());
+        assertSame(replica1Connection, routing.route());
+    }
+
+    @Test
+    void getConnectionShouldSkipFailedReplicaUntilRetryAfterHasPassed() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        ReadWriteRoutingDataSource routing = routing(replica1, replica2);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica2Connection, routing.route());
+        assertSame(replica2Connection, routing.route());
+        assertSame(replica2Connection, routing.route());
+
+        verify(replica1, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnectionShouldKeepReplicaInRotationWhenItsPoolIsExhausted() throws SQLException {
+        HikariDataSource busy = mock(HikariDataSource.class);
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(busy.getConnection()).thenThrow(new SQLTransientConnectionException("timed out"));
+        when(busy.getHikariPoolMXBean()).thenReturn(pool);
+        when(busy.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getTotalConnections()).thenReturn(10);
+        ReadWriteRoutingDataSource routing = routing(busy, replica2);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica2Connection, routing.route());
+        assertSame(replica2Connection, routing.route());
+        assertSame(replica2Connection, routing.route());
+
+        verify(busy, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnectionShouldFailOverToPrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        when(replica2.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        ReadWriteRoutingDataSource routing = routing(replica1, replica2);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.route());
+    }
+
+    @Test
+    void getConnectionShouldUsePrimaryWhenThreadIsPinned() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(replica1);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        PrimaryPin.set(true);
+
+        assertSame(primaryConnection, routing.route());
+    }
+
+    @Test
+    void getConnectionShouldKeepOtherReadsOnReplicasAfterCommittedWrite() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(replica1);
+
+        commitWrite(routing);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica1Connection, routing.route());
+    }
+
+    @Test
+    void propagateShouldCarryPinOverToTask() {
+        boolean[] pinned = new boolean[2];
+        Runnable unpinned = PrimaryPin.propagate(() -> pinned[0] = PrimaryPin.isPinned());
+        PrimaryPin.set(true);
+        Runnable task = PrimaryPin.propagate(() -> pinned[1] = PrimaryPin.isPinned());
+        PrimaryPin.set(false);
+
+        unpinned.run();
+        task.run();
+
+        assertFalse(pinned[0]);
+        assertTrue(pinned[1]);
+        assertFalse(PrimaryPin.isPinned());
+    }
+
+    private void commitWrite(ReadWriteRoutingDataSource routing) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(primaryConnection, routing.route());
+        TransactionSynchronizationManager.getSynchronizations().forEach(x -> x.afterCommit());
+        TransactionSynchronizationManager.clear();
+    }
+
+    private ReadWriteRoutingDataSource routing(DataSource... replicas) {
+        return new ReadWriteRoutingDataSource(primary, List.of(replicas), Duration.ofHours(1));
+    }
+}
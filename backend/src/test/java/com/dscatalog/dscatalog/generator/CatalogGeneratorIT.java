@@ -0,0 +1,52 @@
+package com.dscatalog.dscatalog.generator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles({"test", "generate"})
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generatordb",
+        "dscatalog.generator.products=2000",
+        "dscatalog.generator.categories=40",
+        "dscatalog.generator.users=100",
+        "dscatalog.generator.batch-size=300"})
+public class CatalogGeneratorIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generatorShouldAddRowsOnTopOfImportSql() {
+        Assertions.assertEquals(25 + 2000, count("SELECT COUNT(*) FROM tb_product"));
+        Assertions.assertEquals(3 + 40, count("SELECT COUNT(*) FROM tb_category"));
+        Assertions.assertEquals(2 + 100, count("SELECT COUNT(*) FROM tb_user"));
+        Assertions.assertEquals(0, count("SELECT COUNT(*) FROM tb_user u WHERE NOT EXISTS "
+                + "(SELECT 1 FROM tb_user_role ur WHERE ur.user_id = u.id)"));
+    }
+
+    @Test
+    void generatedProductsShouldBelongToOneToFiveCategories() {
+        Assertions.assertEquals(0, count("SELECT COUNT(*) FROM tb_product p WHERE p.id > 25 AND "
+                + "(SELECT COUNT(*) FROM tb_product_category pc WHERE pc.product_id = p.id) NOT BETWEEN 1 AND 5"));
+    }
+
+    @Test
+    void categoryPopularityShouldBeSkewed() {
+        long first = count("SELECT COUNT(*) FROM tb_product_category WHERE category_id = 4");
+        long last = count("SELECT COUNT(*) FROM tb_product_category WHERE category_id = 43");
+        Assertions.assertTrue(first > 5 * last, first + " vs " + last);
+    }
+
+    @Test
+    void productSequenceShouldContinueAfterGeneratedIds() {
+        Assertions.assertTrue(count("SELECT NEXT VALUE FOR tb_product_seq") > 2025);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
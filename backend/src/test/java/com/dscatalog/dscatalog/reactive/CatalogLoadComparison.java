@@ -0,0 +1,130 @@
+package com.dscatalog.dscatalog.reactive;
+
+import com.dscatalog.dscatalog.DscatalogApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Drives the servlet and the reactive read endpoints with the same high-concurrency load and logs
+ * throughput and latency percentiles for each. Not part of the regular build; run it explicitly with
+ *
+ *   mvn test -Dtest=CatalogLoadComparison -Dload.concurrency=1000 -Dload.requests=50000
+ *
+ * The client is non-blocking, so the number of in-flight requests is bounded by load.concurrency only.
+ * Both stacks are measured as deployed, including the servlet application's caches and its 503 load shedding.
+ * r2dbc-h2 executes queries on the calling event-loop thread, so against the default in-memory H2 the reactive
+ * numbers are a lower bound; pass -Dspring.datasource.url=jdbc:postgresql://... and
+ * -Dspring.r2dbc.url=r2dbc:postgresql://... (with credentials and -Ddscatalog.reactive.init-database=false)
+ * to compare both against the same PostgreSQL.
+ */
+class CatalogLoadComparison {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogLoadComparison.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 20000);
+
+    private static ConfigurableApplicationContext servlet;
+    private static ConfigurableApplicationContext reactive;
+
+    @BeforeAll
+    static void startApplications() {
+        servlet = new SpringApplicationBuilder(DscatalogApplication.class)
+                .run("--server.port=0");
+        reactive = new SpringApplicationBuilder(ReactiveCatalogApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run("--server.port=0");
+    }
+
+    @AfterAll
+    static void stopApplications() {
+        servlet.close();
+        reactive.close();
+    }
+
+    @Test
+    void compareProductById() {
+        run("GET /products/{id}", "/products/");
+    }
+
+    @Test
+    void compareProductListing() {
+        run("GET /products?page", "/products?size=20&page=");
+    }
+
+    private void run(String name, String path) {
+        Result servletResult = drive(portOf(servlet), path);
+        Result reactiveResult = drive(portOf(reactive), path);
+        LOG.info("{} at concurrency {}: servlet {} | reactive {}", name, CONCURRENCY, servletResult, reactiveResult);
+    }
+
+    private static Result drive(int port, String path) {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        /* warm up JIT, pools and caches before measuring */
+        load(client, path, Math.min(REQUESTS, 2000));
+        return load(client, path, REQUESTS);
+    }
+
+    private static Result load(WebClient client, String path, int requests) {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    String uri = path + (path.endsWith("=") ? ThreadLocalRandom.current().nextInt(2) : ThreadLocalRandom.current().nextInt(1, 26));
+                    return client.get().uri(uri).retrieve().toBodilessEntity()
+                            .doOnError(e -> errors.incrementAndGet())
+                            .onErrorResume(e -> Mono.empty())
+                            .doFinally(signal -> latencies[i] = System.nanoTime() - sent);
+                }, CONCURRENCY)
+                .blockLast(Duration.ofMinutes(10));
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(requests * 1e9 / elapsed, latencies, errors.get());
+    }
+
+    private static int portOf(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static final class Result {
+
+        private final double throughput;
+        private final long[] sortedLatencies;
+        private final int errors;
+
+        Result(double throughput, long[] sortedLatencies, int errors) {
+            this.throughput = throughput;
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+        }
+
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d errors",
+                    throughput, percentileMillis(50), percentileMillis(99), percentileMillis(100), errors);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dscatalog.dscatalog.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(classes = ReactiveCatalogApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+public class ReactiveCatalogIT {
+
+    @Autowired
+    private WebTestClient client;
+
+    private long existingId;
+    private long nonExistingId;
+    private long countTotalProducts;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingId = 1L;
+        nonExistingId = 1000L;
+        countTotalProducts = 25L;
+    }
+
+    @Test
+    void findAllShouldReturnPageOfProducts() {
+        client.get().uri("/products?page=1&size=10")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(countTotalProducts)
+                .jsonPath("$.totalPages").isEqualTo(3)
+                .jsonPath("$.content.length()").isEqualTo(10)
+                .jsonPath("$.content[0].id").isEqualTo(11);
+    }
+
+    @Test
+    void findByIdShouldReturnProductWithCategoriesWhenIdExists() {
+        client.get().uri("/products/{id}", existingId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("The Lord of the Rings")
+                .jsonPath("$.description").exists()
+                .jsonPath("$.categories[0].id").isEqualTo(2);
+    }
+
+    @Test
+    void findByIdShouldReturnNotFoundWhenIdDoesNotExist() {
+        client.get().uri("/products/{id}", nonExistingId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Resource not found")
+                .jsonPath("$.path").isEqualTo("/products/" + nonExistingId);
+    }
+
+    @Test
+    void findAllShouldReturnPageOfCategories() {
+        client.get().uri("/categories")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(3)
+                .jsonPath("$.content[2].name").isEqualTo("Computadores");
+    }
+
+    @Test
+    void findCategoryByIdShouldReturnNotFoundWhenIdDoesNotExist() {
+        client.get().uri("/categories/{id}", nonExistingId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -1,5 +1,6 @@
 package com.dscatalog.dscatalog.repositories;
 
+import com.dscatalog.dscatalog.config.HibernateCacheConfig;
 import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.tests.Factory;
 import org.junit.jupiter.api.Assertions;
@@ -7,11 +8,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.util.Optional;
 
 @DataJpaTest
+@Import(HibernateCacheConfig.class)
 public class CategoryRepositoryTest {
 
     @Autowired
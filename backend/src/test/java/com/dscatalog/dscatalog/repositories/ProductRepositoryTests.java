@@ -1,5 +1,7 @@
 package com.dscatalog.dscatalog.repositories;
 
+import com.dscatalog.dscatalog.config.HibernateCacheConfig;
+import com.dscatalog.dscatalog.dto.ProductDTO;
 import com.dscatalog.dscatalog.entities.Product;
 import com.dscatalog.dscatalog.tests.Factory;
 import org.junit.jupiter.api.Assertions;
@@ -7,11 +9,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.Optional;
 
 @DataJpaTest
+@Import(HibernateCacheConfig.class)
 public class ProductRepositoryTests {
 
     @Autowired
@@ -74,4 +81,21 @@ public class ProductRepositoryTests {
         Assertions.assertTrue(id.isEmpty());
     }
 
+    @Test
+    void findAllSummariesShouldReturnSortedSliceWithoutDescription() {
+
+        Slice<ProductDTO> result = repository.findAllSummaries(PageRequest.of(0, 10, Sort.by("name")));
+
+        Assertions.assertEquals(10, result.getNumberOfElements());
+        Assertions.assertTrue(result.hasNext());
+        Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+        Assertions.assertNull(result.getContent().get(0).getDescription());
+    }
+
+    @Test
+    void countProductsShouldMatchNameIgnoringCase() {
+
+        Assertions.assertEquals(countTotalProducts, repository.countProducts(""));
+        Assertions.assertEquals(1, repository.countProducts("macbook"));
+    }
 }
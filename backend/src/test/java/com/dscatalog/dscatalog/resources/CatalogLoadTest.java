@@ -0,0 +1,337 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Boots the application on its own H2 database, fills it through the "generate" profile and drives mixed
+ * read and write traffic across products, categories and users from a fixed number of closed-loop clients.
+ * Reports throughput and p50/p99/p999 latency per operation and fails when a latency budget or the error
+ * budget is exceeded. Tagged "load", so it only runs with
+ *
+ *   mvn -Pload test
+ *   mvn -Pload test -Dload.products=500000 -Dload.clients=64 -Dload.duration=120 -Dload.slo.p99=150
+ *
+ * Each operation has default budgets in milliseconds. load.slo.p50, load.slo.p99 and load.slo.p999 replace
+ * them for every operation and load.slo.<operation>.<percentile> for one, e.g. -Dload.slo.user-insert.p99=800.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles({"test", "generate"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loaddb",
+        "dscatalog.generator.products=${load.products:100000}",
+        "dscatalog.generator.categories=${load.categories:200}",
+        "dscatalog.generator.users=${load.users:1000}"})
+public class CatalogLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.001"));
+
+    /* rows of import.sql, which the traffic does not update */
+    private static final int SEED_PRODUCTS = 25;
+    private static final int SEED_USERS = 2;
+
+    private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor "
+            + "incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco.";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ConcurrentLinkedQueue<Long> insertedProducts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong uniqueSuffix = new AtomicLong();
+
+    private int products;
+    private int categories;
+    private int users;
+
+    /*
+     * Traffic mix and default budgets in milliseconds. Writes queue on the small write pool, so their budgets
+     * are wider than those of reads. User inserts also queue for BCrypt on the hash pool, which has one thread
+     * per core, so on a one or two core host closed-loop clients wait there for seconds; their budget allows for
+     * that rather than the pool taking more threads than there are cores.
+     */
+    private enum Operation {
+        PRODUCT_LIST(25, 100, 500, 1_000),
+        PRODUCT_DETAIL(30, 100, 500, 1_000),
+        PRODUCT_INSERT(4, 1_000, 2_500, 4_000),
+        PRODUCT_UPDATE(4, 1_000, 2_500, 4_000),
+        PRODUCT_DELETE(2, 1_000, 2_500, 4_000),
+        CATEGORY_LIST(8, 100, 500, 1_000),
+        CATEGORY_DETAIL(8, 100, 500, 1_000),
+        CATEGORY_INSERT(1, 1_000, 2_500, 4_000),
+        CATEGORY_UPDATE(1, 1_000, 2_500, 4_000),
+        USER_LIST(6, 100, 500, 1_000),
+        USER_DETAIL(8, 100, 500, 1_000),
+        USER_INSERT(1, 5_000, 7_500, 10_000),
+        USER_UPDATE(2, 1_000, 2_500, 4_000);
+
+        private final int weight;
+        private final long[] budgets;
+
+        Operation(int weight, long p50, long p99, long p999) {
+            this.weight = weight;
+            this.budgets = new long[] {p50, p99, p999};
+        }
+
+        String label() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    @BeforeAll
+    void readCatalogSize() {
+        products = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_product", Long.class).intValue();
+        categories = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_category", Long.class).intValue();
+        users = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_user", Long.class).intValue();
+        LOG.info("Catalog has {} products, {} categories and {} users", products, categories, users);
+    }
+
+    @Test
+    void mixedTrafficShouldStayWithinLatencyBudgets() throws Exception {
+        drive(WARMUP);
+        Result result = drive(DURATION);
+        LOG.info("Mixed traffic with {} clients for {} s:\n{}", CLIENTS, DURATION.getSeconds(), result);
+
+        List<String> violations = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = result.latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            check(violations, operation, "p50", 50.0, operation.budgets[0], histogram);
+            check(violations, operation, "p99", 99.0, operation.budgets[1], histogram);
+            check(violations, operation, "p999", 99.9, operation.budgets[2], histogram);
+        }
+        double errorRate = (double) result.errors() / result.requests();
+        if (errorRate > MAX_ERROR_RATE) {
+            violations.add(String.format("error rate %.4f exceeds %.4f", errorRate, MAX_ERROR_RATE));
+        }
+        Assertions.assertTrue(violations.isEmpty(), String.join("\n", violations));
+    }
+
+    private static void check(List<String> violations, Operation operation, String name, double percentile,
+            long defaultBudget, Histogram histogram) {
+        long budget = Long.getLong("load.slo." + operation.label() + "." + name,
+                Long.getLong("load.slo." + name, defaultBudget));
+        double actual = histogram.getValueAtPercentile(percentile) / 1000.0;
+        if (actual > budget) {
+            violations.add(String.format("%s %s %.1f ms exceeds budget %d ms", operation.label(), name, actual, budget));
+        }
+    }
+
+    private Result drive(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                long seed = i;
+                futures.add(clients.submit(() -> clientLoop(new SplittableRandom(seed), deadline)));
+            }
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.add(future.get());
+            }
+            total.elapsedNanos = duration.toNanos();
+            return total;
+        }
+        finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Result clientLoop(SplittableRandom random, long deadline) {
+        Result result = new Result();
+        int totalWeight = 0;
+        for (Operation operation : Operation.values()) {
+            totalWeight += operation.weight;
+        }
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick(random.nextInt(totalWeight));
+            HttpRequest request = request(operation, random);
+            if (request == null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                long micros = (System.nanoTime() - start) / 1_000;
+                result.latencies.get(operation).recordValue(Math.min(micros, result.latencies.get(operation).getHighestTrackableValue()));
+                if (response.statusCode() >= 300) {
+                    result.errorCounts.merge(operation, 1L, Long::sum);
+                }
+                else if (operation == Operation.PRODUCT_INSERT) {
+                    insertedProducts.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+            }
+            catch (Exception e) {
+                result.errorCounts.merge(operation, 1L, Long::sum);
+            }
+        }
+        return result;
+    }
+
+    private static Operation pick(int ticket) {
+        for (Operation operation : Operation.values()) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        long product = SEED_PRODUCTS + 1 + random.nextInt(products - SEED_PRODUCTS);
+        long category = 1 + random.nextInt(categories);
+        long user = 1 + random.nextInt(users);
+        switch (operation) {
+            case PRODUCT_LIST:
+                return get("/products?size=12&page=" + random.nextInt(products / 12));
+            case PRODUCT_DETAIL:
+                return get("/products/" + (1 + random.nextInt(products)));
+            case PRODUCT_INSERT:
+                return send("POST", "/products", productBody("Load product " + uniqueSuffix.incrementAndGet(), category));
+            case PRODUCT_UPDATE:
+                return send("PUT", "/products/" + product, productBody("Updated product " + product, category));
+            case PRODUCT_DELETE: {
+                Long id = insertedProducts.poll();
+                return id == null ? null : HttpRequest.newBuilder(uri("/products/" + id)).DELETE().build();
+            }
+            case CATEGORY_LIST:
+                return get("/categories?size=12&page=" + random.nextInt(Math.max(1, categories / 12)));
+            case CATEGORY_DETAIL:
+                return get("/categories/" + category);
+            case CATEGORY_INSERT:
+                return send("POST", "/categories", "{\"name\":\"Load category " + uniqueSuffix.incrementAndGet() + "\"}");
+            case CATEGORY_UPDATE:
+                return send("PUT", "/categories/" + category, "{\"name\":\"Category " + category + "\"}");
+            case USER_LIST:
+                return get("/users?size=12&page=" + random.nextInt(Math.max(1, users / 12)));
+            case USER_DETAIL:
+                return get("/users/" + user);
+            case USER_INSERT:
+                return send("POST", "/users", userBody("new" + uniqueSuffix.incrementAndGet() + "@load.test", "\"password\":\"123456\","));
+            case USER_UPDATE:
+                return user <= SEED_USERS ? null : send("PUT", "/users/" + user, userBody("user" + user + "@example.com", ""));
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private static String productBody(String name, long category) {
+        return "{\"name\":\"" + name + "\",\"description\":\"" + DESCRIPTION + "\",\"price\":99.9,"
+                + "\"imgUrl\":\"https://img.example.com/load.jpg\",\"date\":\"2021-06-01T10:00:00Z\","
+                + "\"categories\":[{\"id\":" + category + "}]}";
+    }
+
+    private static String userBody(String email, String password) {
+        return "{\"firstName\":\"Load\",\"lastName\":\"User\",\"email\":\"" + email + "\"," + password
+                + "\"roles\":[{\"id\":1}]}";
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static final class Result {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+
+        Result() {
+            for (Operation operation : Operation.values()) {
+                /* microseconds, up to one minute, three significant digits */
+                latencies.put(operation, new Histogram(TimeUnit.MINUTES.toMicros(1), 3));
+            }
+        }
+
+        void add(Result other) {
+            other.latencies.forEach((operation, histogram) -> latencies.get(operation).add(histogram));
+            other.errorCounts.forEach((operation, count) -> errorCounts.merge(operation, count, Long::sum));
+        }
+
+        long requests() {
+            return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        long errors() {
+            return errorCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder sb = new StringBuilder(String.format("%-17s %9s %9s %9s %9s %9s %9s %7s%n",
+                    "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+            Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = latencies.get(operation);
+                all.add(histogram);
+                line(sb, operation.label(), histogram, seconds, errorCounts.getOrDefault(operation, 0L));
+            }
+            line(sb, "total", all, seconds, errors());
+            return sb.toString();
+        }
+
+        private static void line(StringBuilder sb, String label, Histogram histogram, double seconds, long errors) {
+            sb.append(String.format("%-17s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %7d%n", label,
+                    histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0, errors));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.resources.filters.ListingResponseCacheFilter;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
+import com.dscatalog.dscatalog.tests.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CategoryResourceIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private ListingResponseCacheFilter listingCache;
+
+    private long existingId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingId = 1L;
+        listingCache.invalidateAll();
+    }
+
+    @Test
+    void findAllShouldBeServedFromSnapshotWithoutQueries() throws Exception {
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories?page=0&size=12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+
+        queryCounter.assertStatements(0);
+    }
+
+    @Test
+    void findByIdShouldBeServedFromSnapshotWithoutQueries() throws Exception {
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Livros"));
+
+        queryCounter.assertStatements(0);
+    }
+
+    @Test
+    void updateShouldIssueSelectUpdateAndSnapshotReload() throws Exception {
+        queryCounter.start();
+
+        put(existingId, "Books");
+
+        // select, update, outbox append and the snapshot reload
+        queryCounter.assertStatements(4);
+        put(existingId, "Livros");
+    }
+
+    @Test
+    void insertAndDeleteShouldIssueBoundedNumberOfStatements() throws Exception {
+        String jsonBody = objectMapper.writeValueAsString(new CategoryDTO(null, "Games"));
+        queryCounter.start();
+
+        String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/categories")
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // the insert, its outbox append and the snapshot reload after commit
+        queryCounter.assertStatements(3);
+        long id = objectMapper.readValue(body, CategoryDTO.class).getId();
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/categories/{id}", id))
+                .andExpect(status().isNoContent());
+
+        queryCounter.assertStatements(4);
+    }
+
+    private void put(long id, String name) throws Exception {
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/categories/{id}", id)
+                .content(objectMapper.writeValueAsString(new CategoryDTO(null, name)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
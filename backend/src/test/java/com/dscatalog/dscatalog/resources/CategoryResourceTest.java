@@ -4,6 +4,7 @@ import com.dscatalog.dscatalog.dto.CategoryDTO;
 import com.dscatalog.dscatalog.services.CategoryService;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
 import com.dscatalog.dscatalog.tests.Factory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,7 +12,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -24,9 +27,11 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import(AsyncRequests.class)
 @WebMvcTest(CategoryResource.class)
 class CategoryResourceTest {
 
@@ -56,11 +61,12 @@ class CategoryResourceTest {
 
         when(service.insert(any())).thenReturn(categoryDTO);
 
+        categoryDTO.setVersion(3);
         when(service.findById(existingId)).thenReturn(categoryDTO);
         when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 
-        when(service.update(eq(existingId), any())).thenReturn(categoryDTO);
-        when(service.update(eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
+        when(service.update(eq(existingId), any(), any())).thenReturn(categoryDTO);
+        when(service.update(eq(nonExistingId), any(), any())).thenThrow(ResourceNotFoundException.class);
 
         doNothing().when(service).delete(existingId);
         doThrow(ResourceNotFoundException.class).when(service).delete(nonExistingId);
@@ -71,7 +77,7 @@ class CategoryResourceTest {
     void insertShouldReturnCategory() throws Exception {
         String jsonBody = objectMapper.writeValueAsString(categoryDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.post("/categories")
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/categories")
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -82,7 +88,7 @@ class CategoryResourceTest {
     @Test
     void deleteShouldReturnNoContentWhenIdExists() throws Exception {
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.delete("/categories/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/categories/{id}", existingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNoContent());
@@ -92,7 +98,7 @@ class CategoryResourceTest {
     @Test
     void deleteShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.delete("/categories/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/categories/{id}", nonExistingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNotFound());
@@ -101,7 +107,7 @@ class CategoryResourceTest {
 
     @Test
     void findAllShouldReturnPage() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/categories")
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories")
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isOk());
@@ -110,7 +116,7 @@ class CategoryResourceTest {
 
     @Test
     void findByIdShouldReturnCategoryWhenIdExists() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/categories/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories/{id}", existingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isOk());
@@ -119,9 +125,19 @@ class CategoryResourceTest {
 
     }
 
+    @Test
+    void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories/{id}", existingId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isNotModified());
+        perform.andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
     @Test
     void findByIdShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/categories/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/categories/{id}", nonExistingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNotFound());
@@ -132,7 +148,7 @@ class CategoryResourceTest {
     void updateShouldReturnCategoryDTOWhenIdExists() throws Exception {
         String jsonBody = objectMapper.writeValueAsString(categoryDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/categories/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/categories/{id}", existingId)
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -150,7 +166,7 @@ class CategoryResourceTest {
 
         String jsonBody = objectMapper.writeValueAsString(categoryDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/categories/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/categories/{id}", nonExistingId)
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -0,0 +1,213 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.ChangeEventDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
+import com.dscatalog.dscatalog.entities.OutboxEvent;
+import com.dscatalog.dscatalog.services.ChangeFeedRelay;
+import com.dscatalog.dscatalog.services.ChangeFeedService;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
+import com.dscatalog.dscatalog.tests.Factory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ChangeFeedResourceIT {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeFeedService service;
+
+    @Autowired
+    private ChangeFeedRelay relay;
+
+    private long head;
+
+    @BeforeEach
+    void setUp() {
+        head = service.findLastSequence();
+    }
+
+    /* a category rather than a product, so the product id pool that ProductResourceIT budgets for stays untouched */
+    @Test
+    void insertAndDeleteShouldAppearInFeedInCommitOrder() throws Exception {
+        String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/categories")
+                .content(objectMapper.writeValueAsString(new CategoryDTO(null, "Games")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readValue(body, CategoryDTO.class).getId();
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/categories/{id}", id))
+                .andExpect(status().isNoContent());
+
+        List<ChangeEventDTO> events = awaitEvents(x -> OutboxEvent.CATEGORY.equals(x.getAggregateType())
+                && x.getAggregateId() == id, 2);
+
+        Assertions.assertEquals(ChangeType.INSERT, events.get(0).getType());
+        Assertions.assertEquals(ChangeType.DELETE, events.get(1).getType());
+        Assertions.assertTrue(events.get(0).getSequence() > head);
+        Assertions.assertTrue(events.get(1).getSequence() > events.get(0).getSequence());
+    }
+
+    @Test
+    void failedUpdateShouldAppendNothing() throws Exception {
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", 2L)
+                .header(HttpHeaders.IF_MATCH, "\"9999\"")
+                .content(objectMapper.writeValueAsString(Factory.createProductDTO()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        /* a committed write after it, so the relay has certainly passed the rolled back one */
+        putCategory(3L, "Computers");
+        putCategory(3L, "Computadores");
+
+        List<ChangeEventDTO> events = awaitEvents(x -> OutboxEvent.CATEGORY.equals(x.getAggregateType())
+                && x.getAggregateId() == 3L, 2);
+
+        List<ChangeEventDTO> failed = changesAfter(head).stream()
+                .filter(x -> x.getSequence() <= events.get(1).getSequence())
+                .filter(x -> OutboxEvent.PRODUCT.equals(x.getAggregateType()) && x.getAggregateId() == 2L)
+                .collect(Collectors.toList());
+        Assertions.assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void streamShouldSendEventsAfterLastEventId() throws Exception {
+        int subscribers = relay.getSubscriberCount();
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/changes/stream")
+                .header("Last-Event-ID", head)
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Assertions.assertEquals(subscribers + 1, relay.getSubscriberCount());
+
+        putCategory(2L, "Electronics");
+        putCategory(2L, "Eletrônicos");
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains("\"aggregateId\":2,\"type\":\"UPDATE\"") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        Assertions.assertTrue(content.contains("event:change"), content);
+        Assertions.assertTrue(content.contains("id:" + (head + 1)), content);
+        Assertions.assertTrue(content.contains("\"aggregateId\":2,\"type\":\"UPDATE\""), content);
+
+        result.getRequest().getAsyncContext().complete();
+        Assertions.assertEquals(subscribers, relay.getSubscriberCount());
+    }
+
+    @Test
+    void findAfterShouldAdvanceWhileAStreamNeverReads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter stalled = new SseEmitter(TIMEOUT_MILLIS) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                /* throws once completed, which makes the relay drop the stream */
+                super.send(builder);
+            }
+        };
+        relay.subscribe(stalled, head);
+        try {
+            String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/categories")
+                    .content(objectMapper.writeValueAsString(new CategoryDTO(null, "Toys")))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            long id = objectMapper.readValue(body, CategoryDTO.class).getId();
+            AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/categories/{id}", id))
+                    .andExpect(status().isNoContent());
+
+            awaitEvents(x -> OutboxEvent.CATEGORY.equals(x.getAggregateType()) && x.getAggregateId() == id, 2);
+        }
+        finally {
+            release.countDown();
+            stalled.complete();
+        }
+    }
+
+    @Test
+    void findAfterShouldReturnGoneWhenCursorWasPurged() throws Exception {
+        putCategory(1L, "Books");
+        putCategory(1L, "Livros");
+        awaitEvents(x -> OutboxEvent.CATEGORY.equals(x.getAggregateType()) && x.getAggregateId() == 1L, 2);
+
+        service.purge(Instant.now().plusSeconds(60));
+        long last = service.findLastSequence();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/changes").param("after", "0"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").value("Change feed expired"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/changes/stream").header("Last-Event-ID", 0L))
+                .andExpect(status().isGone());
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/changes").param("after", String.valueOf(last)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").value(String.valueOf(last)));
+    }
+
+    private List<ChangeEventDTO> awaitEvents(Predicate<ChangeEventDTO> filter, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        List<ChangeEventDTO> events = List.of();
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            events = changesAfter(head).stream().filter(filter).collect(Collectors.toList());
+        }
+        Assertions.assertEquals(count, events.size(), () -> "Events not relayed within " + TIMEOUT_MILLIS + " ms");
+        return events;
+    }
+
+    private List<ChangeEventDTO> changesAfter(long after) throws Exception {
+        String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/changes")
+                .param("after", String.valueOf(after))
+                .param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<CursorPageDTO<ChangeEventDTO>>() {}).getContent();
+    }
+
+    private void putCategory(long id, String name) throws Exception {
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/categories/{id}", id)
+                .content(objectMapper.writeValueAsString(new CategoryDTO(null, name)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,25 +1,47 @@
 package com.dscatalog.dscatalog.resources;
 
+import com.dscatalog.dscatalog.config.CacheConfig;
+import com.dscatalog.dscatalog.dto.CategoryDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.resources.filters.ListingResponseCacheFilter;
+import com.dscatalog.dscatalog.services.CategoryService;
+import com.dscatalog.dscatalog.services.ProductService;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
 import com.dscatalog.dscatalog.tests.Factory;
+import com.dscatalog.dscatalog.tests.QueryCounter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
+/*
+ * Writes run on the write pool and commit there, out of reach of any test transaction, so each test's changes
+ * are undone through the services after it, which also keeps the caches in step.
+ */
 @SpringBootTest
 @AutoConfigureMockMvc
-@Transactional
 public class ProductResourceIT {
 
     @Autowired
@@ -28,20 +50,54 @@ public class ProductResourceIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingResponseCacheFilter listingCache;
+
     private long existingId;
     private long nonExistingId;
     private long countTotalProducts;
+    private ProductDTO original;
+    private List<Long> originalIds;
 
     @BeforeEach
     void setUp() throws Exception {
         existingId = 1L;
         nonExistingId = 1000L;
         countTotalProducts = 25L;
+        original = productService.findById(existingId);
+        originalIds = productIds();
+    }
+
+    @AfterEach
+    void restoreCatalog() {
+        for (Long id : productIds()) {
+            if (!originalIds.contains(id)) {
+                productService.delete(id);
+            }
+        }
+        if (!content(productService.findById(existingId)).equals(content(original))) {
+            productService.update(existingId, original, null);
+        }
     }
 
     @Test
     void findAllShouldReturnSortedPageWhenSortByName() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/products?page=0&size=12&sort=name,asc")
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=0&size=12&sort=name,asc")
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isOk());
@@ -62,7 +118,7 @@ public class ProductResourceIT {
         String expectedName = productDTO.getName();
         String expectedDescription = productDTO.getDescription();
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -81,7 +137,7 @@ public class ProductResourceIT {
         ProductDTO productDTO = Factory.createProductDTO();
         String jsonBody = objectMapper.writeValueAsString(productDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", nonExistingId)
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -89,20 +145,269 @@ public class ProductResourceIT {
         perform.andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateShouldReturnNewETagWhenIfMatchIsCurrent() throws Exception {
+
+        /* earlier tests may have bumped the version, so start from the current one */
+        String etag = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        int version = Integer.parseInt(etag.replace("\"", "").split("-")[0]);
+        /* an update that changes nothing keeps the version, so make sure this one differs from the stored product */
+        ProductDTO productDTO = Factory.createProductDTO();
+        productDTO.setName("Phone " + version);
+        String jsonBody = objectMapper.writeValueAsString(productDTO);
+
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isOk());
+        String updated = perform.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertTrue(updated.startsWith("\"" + (version + 1) + "-"));
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)
+                .header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateShouldSucceedWhenAnyIfMatchTagIsCurrent() throws Exception {
+
+        String etag = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        int version = Integer.parseInt(etag.replace("\"", "").split("-")[0]);
+        ProductDTO productDTO = Factory.createProductDTO();
+        productDTO.setName("Phone " + version);
+        String jsonBody = objectMapper.writeValueAsString(productDTO);
+
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
+                .header(HttpHeaders.IF_MATCH, "\"9999\", W/" + etag + ", " + etag)
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isOk());
+    }
+
+    @Test
+    void updateShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+
+        String jsonBody = objectMapper.writeValueAsString(Factory.createProductDTO());
+
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
+                .header(HttpHeaders.IF_MATCH, "\"9999\"")
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void exportShouldStreamOneNdjsonLinePerProduct() throws Exception {
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=products.ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(countTotalProducts, lines.length);
+        Assertions.assertEquals(1L, objectMapper.readValue(lines[0], ProductDTO.class).getId());
+        ProductDTO second = objectMapper.readValue(lines[1], ProductDTO.class);
+        Assertions.assertEquals(List.of(1L, 3L),
+                second.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toList()));
+    }
 
+    @Test
+    void exportShouldStreamCsvWithHeaderWhenFormatIsCsv() throws Exception {
 
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/products/export?format=CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
 
+        String[] lines = body.split("\n");
+        Assertions.assertEquals("id,name,description,price,imgUrl,date,categories", lines[0]);
+        Assertions.assertEquals(countTotalProducts + 1, lines.length);
+        Assertions.assertTrue(lines[2].endsWith(",1|3"));
+    }
 
+    @Test
+    void findAllShouldIssueOneSummaryAndOneCountQuery() throws Exception {
+        listingCache.invalidateAll();
+        queryCounter.start();
 
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=0&size=12")).andExpect(status().isOk());
 
+        queryCounter.assertStatements(2);
+    }
 
+    @Test
+    void findAllShouldServeTotalFromCacheWhenRepeated() throws Exception {
+        listingCache.invalidateAll();
+        queryCounter.start();
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=0&size=12")).andExpect(status().isOk());
+        queryCounter.assertStatements(2);
+        listingCache.invalidateAll();
+        queryCounter.startWarm();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=1&size=12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(countTotalProducts));
+
+        queryCounter.assertStatements(1);
+    }
 
+    @Test
+    void findAllShouldReturnSliceWithoutCountQueryWhenCountIsFalse() throws Exception {
+        listingCache.invalidateAll();
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=0&size=12&sort=name,asc&count=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(12))
+                .andExpect(jsonPath("$.content[0].name").value("Macbook Pro"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        queryCounter.assertStatements(1);
+    }
 
+    @Test
+    void findAllShouldReturnLastSliceWithoutNextWhenCountIsFalse() throws Exception {
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?page=1&size=12&count=false&name=gamer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.number").value(1))
+                .andExpect(jsonPath("$.content.length()").value(9))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
 
+    @Test
+    void findByIdShouldIssueProductAndCategoryQueries() throws Exception {
+        cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+        queryCounter.start();
 
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)).andExpect(status().isOk());
 
+        queryCounter.assertStatements(2);
+    }
 
+    @Test
+    void findByIdShouldIssueNoQueriesWhenCached() throws Exception {
+        String etag = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        queryCounter.startWarm();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        queryCounter.assertStatements(0);
+    }
 
+    @Test
+    void findByIdShouldReturnNewCategoryNameWhenCategoryRenamed() throws Exception {
+        String name = categoryService.findById(2L).getName();
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].id").value(2L));
+
+        renameCategory(2L, "Electronics");
+        try {
+            AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.categories[0].name").value("Electronics"));
+        }
+        finally {
+            renameCategory(2L, name);
+        }
+    }
 
+    @Test
+    void findByIdShouldReturnOkWhenCategoryRenamedSinceETag() throws Exception {
+        String name = categoryService.findById(2L).getName();
+        String etag = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        /* a name it cannot already have, as renaming to the current name leaves the version alone */
+        String renamed = "Electronics " + System.nanoTime();
+        renameCategory(2L, renamed);
+        try {
+            AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.categories[0].name").value(renamed));
+        }
+        finally {
+            renameCategory(2L, name);
+        }
+    }
+
+    @Test
+    void insertAndDeleteShouldIssueBoundedNumberOfStatements() throws Exception {
+        String jsonBody = objectMapper.writeValueAsString(Factory.createProductDTO());
+        queryCounter.start();
+
+        String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/products")
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        queryCounter.assertStatements(5);
+        long id = objectMapper.readValue(body, ProductDTO.class).getId();
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/products/{id}", id)).andExpect(status().isNoContent());
+
+        queryCounter.assertStatements(4);
+    }
+
+    @Test
+    void updateShouldIssueBoundedNumberOfStatements() throws Exception {
+        ProductDTO productDTO = Factory.createProductDTO();
+        productDTO.setName("Phone " + System.nanoTime());
+        String jsonBody = objectMapper.writeValueAsString(productDTO);
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        queryCounter.assertStatements(4);
+    }
+
+    private void renameCategory(long id, String name) throws Exception {
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/categories/{id}", id)
+                .content(objectMapper.writeValueAsString(new CategoryDTO(null, name)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    private List<Long> productIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM tb_product", Long.class);
+    }
+
+    /* everything a product update can change, i.e. the DTO without the versions */
+    private ObjectNode content(ProductDTO dto) {
+        ObjectNode node = objectMapper.valueToTree(dto);
+        node.remove("version");
+        node.withArray("categories").forEach(x -> ((ObjectNode) x).remove("version"));
+        return node;
+    }
 }
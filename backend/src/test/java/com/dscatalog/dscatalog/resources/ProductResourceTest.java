@@ -1,9 +1,14 @@
 package com.dscatalog.dscatalog.resources;
 
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.services.ProductExportService;
+import com.dscatalog.dscatalog.services.ProductImportService;
+import com.dscatalog.dscatalog.services.ProductSearchService;
 import com.dscatalog.dscatalog.services.ProductService;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
 import com.dscatalog.dscatalog.tests.Factory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,22 +16,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import(AsyncRequests.class)
 @WebMvcTest(ProductResource.class)
 class ProductResourceTest {
 
@@ -34,6 +49,13 @@ class ProductResourceTest {
     private MockMvc mockMvc;
     @MockBean
     private ProductService service;
+    @MockBean
+    private ProductSearchService searchService;
+    @MockBean
+    private ProductImportService importService;
+
+    @MockBean
+    private ProductExportService exportService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -53,14 +75,16 @@ class ProductResourceTest {
         productDTO = Factory.createProductDTO();
         page = new PageImpl<>(List.of(productDTO));
         when(service.findAllPaged(any())).thenReturn(page);
+        when(searchService.search(eq("phone"), any())).thenReturn(page);
 
         when(service.insert(any())).thenReturn(productDTO);
 
+        productDTO.setVersion(3);
         when(service.findById(existingId)).thenReturn(productDTO);
         when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 
-        when(service.update(eq(existingId), any())).thenReturn(productDTO);
-        when(service.update(eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
+        when(service.update(eq(existingId), any(), any())).thenReturn(productDTO);
+        when(service.update(eq(nonExistingId), any(), any())).thenThrow(ResourceNotFoundException.class);
 
         doNothing().when(service).delete(existingId);
         doThrow(ResourceNotFoundException.class).when(service).delete(nonExistingId);
@@ -71,7 +95,7 @@ class ProductResourceTest {
     void insertShouldReturnProduct() throws Exception {
         String jsonBody = objectMapper.writeValueAsString(productDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.post("/products")
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/products")
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -82,7 +106,7 @@ class ProductResourceTest {
     @Test
     void deleteShouldReturnNoContentWhenIdExists() throws Exception {
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/products/{id}", existingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNoContent());
@@ -92,7 +116,7 @@ class ProductResourceTest {
     @Test
     void deleteShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/products/{id}", nonExistingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNotFound());
@@ -101,16 +125,38 @@ class ProductResourceTest {
 
     @Test
     void findAllShouldReturnPage() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/products")
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products")
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isOk());
+
+    }
+
+    @Test
+    void findAllShouldUseCursorWhenAfterIsCombinedWithCountFalse() throws Exception {
+        when(service.findAllAfter("abc", 20)).thenReturn(new CursorPageDTO<>(List.of(productDTO), 20, "def"));
+
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products?after=abc&count=false")
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isOk());
+        perform.andExpect(jsonPath("$.nextCursor").value("def"));
+        verify(service, never()).findAllSliced(any());
+    }
+
+    @Test
+    void searchShouldReturnPage() throws Exception {
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/search?q=phone")
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isOk());
+        perform.andExpect(jsonPath("$.content[0].name").exists());
 
     }
 
     @Test
     void findByIdShouldReturnProductWhenIdExists() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isOk());
@@ -120,20 +166,43 @@ class ProductResourceTest {
 
     }
 
+    @Test
+    void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", existingId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3-2.null\"")
+                .accept(MediaType.APPLICATION_JSON));
+
+        perform.andExpect(status().isNotModified());
+        perform.andExpect(header().string(HttpHeaders.ETAG, "\"3-2.null\""));
+        perform.andExpect(content().string(""));
+    }
+
     @Test
     void findByIdShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/products/{id}", nonExistingId)
                 .accept(MediaType.APPLICATION_JSON));
 
         perform.andExpect(status().isNotFound());
 
     }
 
+    @Test
+    void findByIdShouldCompleteWithErrorWhenServiceThrowsError() throws Exception {
+        when(service.findById(dependentId)).thenThrow(StackOverflowError.class);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", dependentId)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(result.getAsyncResult(1000) instanceof StackOverflowError);
+    }
+
     @Test
     void updateShouldReturnProductDTOWhenIdExists() throws Exception {
         String jsonBody = objectMapper.writeValueAsString(productDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", existingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", existingId)
                         .content(jsonBody)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON));
@@ -151,7 +220,7 @@ class ProductResourceTest {
 
         String jsonBody = objectMapper.writeValueAsString(productDTO);
 
-        ResultActions perform = mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", nonExistingId)
+        ResultActions perform = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/products/{id}", nonExistingId)
                 .content(jsonBody)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON));
@@ -0,0 +1,122 @@
+package com.dscatalog.dscatalog.resources;
+
+import com.dscatalog.dscatalog.dto.RoleDTO;
+import com.dscatalog.dscatalog.dto.UserDTO;
+import com.dscatalog.dscatalog.dto.UserInsertDTO;
+import com.dscatalog.dscatalog.tests.AsyncMvc;
+import com.dscatalog.dscatalog.tests.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserResourceIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    private long existingId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingId = 2L;
+    }
+
+    @Test
+    void findAllShouldIssuePageQueryAndOneRoleMembershipQuery() throws Exception {
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users?page=0&size=12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        queryCounter.assertStatements(2);
+    }
+
+    @Test
+    void findAllShouldSkipCountQueryWhenCountIsFalse() throws Exception {
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users?page=0&size=1&count=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        queryCounter.assertStatements(2);
+    }
+
+    @Test
+    void findByIdShouldIssueUserAndRoleMembershipQueries() throws Exception {
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.get("/users/{id}", existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles.length()").value(2));
+
+        queryCounter.assertStatements(2);
+    }
+
+    @Test
+    void updateShouldIssueBoundedNumberOfStatements() throws Exception {
+        queryCounter.start();
+
+        put(existingId, "Greene");
+
+        queryCounter.assertStatements(3);
+        put(existingId, "Green");
+    }
+
+    @Test
+    void insertAndDeleteShouldIssueBoundedNumberOfStatements() throws Exception {
+        UserInsertDTO dto = new UserInsertDTO();
+        dto.setFirstName("Bob");
+        dto.setLastName("Grey");
+        dto.setEmail("bob@gmail.com");
+        dto.setPassword("123456");
+        dto.getRoles().add(new RoleDTO(1L, "ROLE_OPERATOR"));
+        String jsonBody = objectMapper.writeValueAsString(dto);
+        queryCounter.start();
+
+        String body = AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.post("/users")
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        queryCounter.assertStatements(2);
+        long id = objectMapper.readValue(body, UserDTO.class).getId();
+        queryCounter.start();
+
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.delete("/users/{id}", id))
+                .andExpect(status().isNoContent());
+
+        queryCounter.assertStatements(3);
+    }
+
+    private void put(long id, String lastName) throws Exception {
+        UserDTO dto = new UserDTO(null, "Maria", lastName, "maria@gmail.com");
+        dto.getRoles().add(new RoleDTO(1L, "ROLE_OPERATOR"));
+        dto.getRoles().add(new RoleDTO(2L, "ROLE_ADMIN"));
+        AsyncMvc.perform(mockMvc, MockMvcRequestBuilders.put("/users/{id}", id)
+                .content(objectMapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
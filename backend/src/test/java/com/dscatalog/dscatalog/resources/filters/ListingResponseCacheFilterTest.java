@@ -0,0 +1,147 @@
+package com.dscatalog.dscatalog.resources.filters;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+class ListingResponseCacheFilterTest {
+
+    private static final String BODY = "{\"content\":[{\"id\":1,\"name\":\"The Lord of the Rings\"}]}";
+
+    private ListingResponseCacheFilter filter;
+    private AtomicInteger renders;
+    private int status;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ListingResponseCacheFilter("maximumWeight=1048576");
+        renders = new AtomicInteger();
+        status = 200;
+    }
+
+    @Test
+    void secondRequestShouldBeServedFromCacheWithoutRendering() throws Exception {
+        MockHttpServletResponse first = perform(get("/products", "page=0&size=12"));
+        MockHttpServletResponse second = perform(get("/products", "size=12&page=0"));
+
+        Assertions.assertEquals("MISS", first.getHeader("X-Cache"));
+        Assertions.assertEquals("HIT", second.getHeader("X-Cache"));
+        Assertions.assertEquals(1, renders.get());
+        Assertions.assertEquals(BODY, second.getContentAsString());
+        Assertions.assertEquals("application/json", second.getContentType());
+    }
+
+    @Test
+    void gzipVariantShouldBeServedWhenAccepted() throws Exception {
+        perform(get("/products", "page=0"));
+        MockHttpServletRequest request = get("/products", "page=0");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Assertions.assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void acceptsGzipShouldRequirePositiveQuality() {
+        Assertions.assertTrue(acceptsGzip("gzip;q=0.5"));
+        Assertions.assertTrue(acceptsGzip("deflate, GZIP ; q=1.0"));
+        Assertions.assertTrue(acceptsGzip("identity, *"));
+        Assertions.assertFalse(acceptsGzip("gzip; q=0"));
+        Assertions.assertFalse(acceptsGzip("gzip;q=0.0"));
+        Assertions.assertFalse(acceptsGzip("gzip;q=0, *"));
+        Assertions.assertFalse(acceptsGzip("deflate, br"));
+        Assertions.assertFalse(acceptsGzip(null));
+    }
+
+    @Test
+    void matchingIfNoneMatchShouldReturnNotModified() throws Exception {
+        String etag = perform(get("/categories", null)).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = get("/categories", null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = perform(request);
+
+        Assertions.assertEquals(304, response.getStatus());
+        Assertions.assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    void invalidateAllShouldForceRenderingAgain() throws Exception {
+        perform(get("/products", "page=0"));
+        filter.invalidateAll();
+        MockHttpServletResponse response = perform(get("/products", "page=0"));
+
+        Assertions.assertEquals("MISS", response.getHeader("X-Cache"));
+        Assertions.assertEquals(2, renders.get());
+    }
+
+    @Test
+    void errorResponsesShouldNotBeCached() throws Exception {
+        status = 400;
+        perform(get("/products", "after=bad"));
+        MockHttpServletResponse response = perform(get("/products", "after=bad"));
+
+        Assertions.assertEquals(400, response.getStatus());
+        Assertions.assertEquals(2, renders.get());
+    }
+
+    @Test
+    void otherPathsShouldPassThrough() throws Exception {
+        perform(get("/products/1", null));
+        MockHttpServletResponse response = perform(get("/products/1", null));
+
+        Assertions.assertNull(response.getHeader("X-Cache"));
+        Assertions.assertEquals(2, renders.get());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return ListingResponseCacheFilter.acceptsGzip(request);
+    }
+
+    private MockHttpServletRequest get(String path, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (query != null) {
+            request.setQueryString(query);
+            for (String param : query.split("&")) {
+                String[] pair = param.split("=");
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders.incrementAndGet();
+                resp.setStatus(status);
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+        return response;
+    }
+}
@@ -4,6 +4,7 @@ import com.dscatalog.dscatalog.dto.CategoryDTO;
 import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.repositories.CategoryRepository;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
+import com.dscatalog.dscatalog.services.exceptions.PreconditionFailedException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
 import com.dscatalog.dscatalog.tests.Factory;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,23 +12,30 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +47,12 @@ class CategoryServiceTest {
 
     @Mock
     private CategoryRepository repository;
+    @Mock
+    private ApplicationEventPublisher publisher;
+    @Mock
+    private CategorySnapshot snapshot;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     private long existingId;
     private long nonExistingId;
@@ -58,8 +72,10 @@ class CategoryServiceTest {
 
         when(repository.findAll((Pageable) any())).thenReturn(page);
         when(repository.save(any())).thenReturn(category);
-        when(repository.findById(existingId)).thenReturn(Optional.of(category));
-        when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenReturn(category);
+        when(snapshot.get(existingId)).thenReturn(dto);
+        when(snapshot.supports(any())).thenAnswer(x -> x.getArgument(0, Sort.class).getOrderFor("createdAt") == null);
+        when(snapshot.sorted(any())).thenReturn(List.of(dto, new CategoryDTO(2L, "Eletrônicos"), new CategoryDTO(3L, "Computadores")));
         when(repository.getOne(existingId)).thenReturn(category);
 
         doNothing().when(repository).deleteById(existingId);
@@ -79,17 +95,25 @@ class CategoryServiceTest {
     @Test
     void updateShouldReturnResourceNotFoundExceptionWhenNonExistingId() {
         assertThrows(ResourceNotFoundException.class, () -> {
-            service.update(nonExistingId, dto);
+            service.update(nonExistingId, dto, null);
         });
     }
 
     @Test
     void updateShouldReturnCategoryWhenExistingId() {
-        CategoryDTO result = service.update(existingId, dto);
+        CategoryDTO result = service.update(existingId, dto, null);
 
         assertNotNull(result);
-        verify(repository).save(category);
+        verify(repository).saveAndFlush(category);
+
+    }
 
+    @Test
+    void updateShouldThrowPreconditionFailedExceptionWhenVersionIsStale() {
+        assertThrows(PreconditionFailedException.class, () -> {
+            service.update(existingId, dto, Set.of(99));
+        });
+        verify(repository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -97,27 +121,38 @@ class CategoryServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             service.findById(nonExistingId);
         });
-        verify(repository).findById(nonExistingId);
+        verify(repository, never()).findById(any());
 
     }
 
     @Test
-    void findByIdShouldReturnCategoryWhenExistingId() {
+    void findByIdShouldReturnCategoryFromSnapshotWhenExistingId() {
         CategoryDTO result = service.findById(existingId);
 
-        assertNotNull(result);
-        verify(repository).findById(existingId);
+        assertSame(dto, result);
+        verify(repository, never()).findById(any());
 
     }
 
     @Test
-    void findAllPagedShouldReturnPage() {
-        Pageable pageable = PageRequest.of(0,10);
+    void findAllPagedShouldSliceSnapshotWithoutQuerying() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("name"));
+        Page<CategoryDTO> result = service.findAllPaged(pageable);
+
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of(3L), result.map(CategoryDTO::getId).getContent());
+        verify(repository, never()).findAll((Pageable) any());
+
+    }
+
+    @Test
+    void findAllPagedShouldQueryRepositoryWhenSortIsNotInSnapshot() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("createdAt"));
         Page<CategoryDTO> result = service.findAllPaged(pageable);
 
         assertNotNull(result);
         verify(repository).findAll(pageable);
-
+        verify(transactionManager).getTransaction(argThat(x -> x.isReadOnly()));
     }
 
     @Test
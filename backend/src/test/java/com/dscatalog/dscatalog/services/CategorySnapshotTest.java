@@ -0,0 +1,101 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.entities.Category;
+import com.dscatalog.dscatalog.repositories.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class CategorySnapshotTest {
+
+    @InjectMocks
+    private CategorySnapshot snapshot;
+
+    @Mock
+    private CategoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(snapshot, "maxAge", Duration.ofMinutes(10));
+        when(repository.findAll()).thenReturn(List.of(new Category(1L, "Livros"), new Category(2L, "Eletrônicos"),
+                new Category(3L, "Computadores"), new Category(4L, "Livros")));
+        snapshot.refresh();
+    }
+
+    @Test
+    void getShouldReturnSameInstanceWithoutQueryingAgain() {
+        assertSame(snapshot.get(2L), snapshot.get(2L));
+        assertNull(snapshot.get(1000L));
+
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void sortedShouldOrderBySortKeysAndBreakTiesById() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(snapshot.sorted(Sort.unsorted())));
+        assertEquals(List.of(3L, 2L, 1L, 4L), ids(snapshot.sorted(Sort.by("name"))));
+        assertEquals(List.of(1L, 4L, 2L, 3L), ids(snapshot.sorted(Sort.by(Sort.Direction.DESC, "name"))));
+        assertEquals(List.of(4L, 1L, 2L, 3L), ids(snapshot.sorted(Sort.by(Sort.Order.desc("name"), Sort.Order.desc("id")))));
+    }
+
+    @Test
+    void supportsShouldRejectPropertiesNotInSnapshot() {
+        assertTrue(snapshot.supports(Sort.by("name", "id")));
+        assertFalse(snapshot.supports(Sort.by("createdAt")));
+        assertFalse(snapshot.supports(Sort.by(Sort.Order.by("name").ignoreCase())));
+    }
+
+    @Test
+    void afterShouldContinueFromCursorEvenWhenCursorRowIsGone() {
+        assertEquals(List.of(3L, 2L), ids(snapshot.after(null, null, 2)));
+        assertEquals(List.of(1L, 4L), ids(snapshot.after("Eletrônicos", 2L, 2)));
+        assertEquals(List.of(4L), ids(snapshot.after("Livros", 1L, 2)));
+        assertEquals(List.of(1L, 4L), ids(snapshot.after("F", 99L, 5)));
+        assertEquals(List.of(), ids(snapshot.after("Livros", 4L, 2)));
+    }
+
+    @Test
+    void onCategoryChangedShouldSwapInNewSnapshot() {
+        List<CategoryDTO> before = snapshot.sorted(Sort.unsorted());
+        when(repository.findAll()).thenReturn(List.of(new Category(1L, "Books")));
+
+        snapshot.onCategoryChanged(null);
+
+        assertEquals("Books", snapshot.get(1L).getName());
+        assertNull(snapshot.get(2L));
+        assertEquals(4, before.size());
+    }
+
+    @Test
+    void readsShouldReloadOnceSnapshotIsOlderThanMaxAge() {
+        ReflectionTestUtils.setField(snapshot, "maxAge", Duration.ZERO);
+
+        snapshot.get(1L);
+
+        verify(repository, times(2)).findAll();
+    }
+
+    private static List<Long> ids(List<CategoryDTO> categories) {
+        return categories.stream().map(CategoryDTO::getId).collect(Collectors.toList());
+    }
+}
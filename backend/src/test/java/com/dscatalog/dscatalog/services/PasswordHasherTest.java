@@ -0,0 +1,73 @@
+package com.dscatalog.dscatalog.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+class PasswordHasherTest {
+
+    @InjectMocks
+    private PasswordHasher hasher;
+
+    @Spy
+    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    @Spy
+    private ThreadPoolTaskExecutor hashExecutor = new ThreadPoolTaskExecutor();
+
+    @Spy
+    private MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        hashExecutor.setCorePoolSize(1);
+        hashExecutor.setMaxPoolSize(1);
+        hashExecutor.setQueueCapacity(0);
+        hashExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashExecutor.shutdown();
+    }
+
+    @Test
+    void hashShouldReturnMatchingBCryptHashAndRecordHashTime() throws Exception {
+        String hash = hasher.hash("123456").get();
+
+        assertTrue(passwordEncoder.matches("123456", hash));
+        assertEquals(1, registry.timer("dscatalog.password.hash").count());
+    }
+
+    @Test
+    void hashShouldThrowTaskRejectedExceptionWhenHashPoolIsSaturated() {
+        CountDownLatch release = new CountDownLatch(1);
+        hashExecutor.execute(() -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThrows(TaskRejectedException.class, () -> hasher.hash("123456"));
+        release.countDown();
+    }
+}
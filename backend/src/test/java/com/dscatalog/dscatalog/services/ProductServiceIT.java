@@ -1,20 +1,33 @@
 package com.dscatalog.dscatalog.services;
 
+import com.dscatalog.dscatalog.config.CacheConfig;
+import com.dscatalog.dscatalog.dto.CategoryDTO;
+import com.dscatalog.dscatalog.dto.CursorPageDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
 import com.dscatalog.dscatalog.repositories.ProductRepository;
+import com.dscatalog.dscatalog.services.exceptions.InvalidCursorException;
+import com.dscatalog.dscatalog.services.exceptions.InvalidSortException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.dscatalog.dscatalog.tests.Factory;
+import com.dscatalog.dscatalog.tests.QueryCounter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -28,6 +41,12 @@ public class ProductServiceIT {
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private long existingId;
     private long nonExistingId;
     private long countTotalProducts;
@@ -85,4 +104,203 @@ public class ProductServiceIT {
         assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
     }
 
+    @Test
+    void findAllAfterShouldReturnFirstPageSortedByNameWhenCursorIsEmpty() {
+        CursorPageDTO<ProductDTO> result = service.findAllAfter("", 3);
+
+        assertEquals(3, result.getContent().size());
+        assertEquals("Macbook Pro", result.getContent().get(0).getName());
+        assertEquals("PC Gamer", result.getContent().get(1).getName());
+        assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
+        assertFalse(result.isLast());
+    }
+
+    @Test
+    void findAllAfterShouldWalkWholeCatalogWhenFollowingNextCursor() {
+        CursorPageDTO<ProductDTO> result = service.findAllAfter("", 10);
+        long count = result.getContent().size();
+        while (!result.isLast()) {
+            result = service.findAllAfter(result.getNextCursor(), 10);
+            count += result.getContent().size();
+        }
+
+        assertEquals(countTotalProducts, count);
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findAllAfterShouldWalkProductsWithoutNameLastWhenFollowingNextCursor() {
+        repository.findAllById(List.of(3L, 1L)).forEach(x -> x.setName(null));
+        repository.flush();
+
+        List<ProductDTO> products = new ArrayList<>();
+        CursorPageDTO<ProductDTO> result = service.findAllAfter("", 23);
+        products.addAll(result.getContent());
+        while (!result.isLast()) {
+            result = service.findAllAfter(result.getNextCursor(), 1);
+            products.addAll(result.getContent());
+        }
+
+        assertEquals(countTotalProducts, products.size());
+        assertEquals(List.of(1L, 3L), products.subList(23, 25).stream().map(ProductDTO::getId).collect(Collectors.toList()));
+        assertNull(products.get(23).getName());
+    }
+
+    @Test
+    void findAllAfterShouldThrowInvalidCursorExceptionWhenCursorIsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> {
+            service.findAllAfter("not-a-cursor", 10);
+        });
+    }
+
+    @Test
+    void findAllPagedWithCategoriesShouldLoadCategoriesWithConstantNumberOfStatements() {
+        queryCounter.start();
+
+        Page<ProductDTO> result = service.findAllPagedWithCategories(PageRequest.of(0, 20));
+
+        // page query, count query and one fetch join for the categories of the whole page
+        queryCounter.assertStatements(3);
+        assertEquals(20, result.getNumberOfElements());
+        assertTrue(result.getContent().stream().allMatch(x -> !x.getCategories().isEmpty()));
+    }
+
+    @Test
+    void findAllPagedShouldIssueSummaryAndCountQueries() {
+        queryCounter.start();
+
+        service.findAllPaged(PageRequest.of(0, 12));
+
+        queryCounter.assertStatements(2);
+    }
+
+    @Test
+    void findAllFilteredShouldLoadCategoriesWithConstantNumberOfStatements() {
+        queryCounter.start();
+
+        Page<ProductDTO> result = service.findAllFiltered(null, "", PageRequest.of(0, 20, Sort.by("name")));
+
+        queryCounter.assertStatements(3);
+        assertEquals(20, result.getNumberOfElements());
+    }
+
+    @Test
+    void findAllAfterShouldIssueOneQueryPerPage() {
+        queryCounter.start();
+
+        service.findAllAfter("", 10);
+
+        queryCounter.assertStatements(1);
+    }
+
+    @Test
+    void findByIdShouldLoadProductAndCategories() {
+        cacheManager.getCache(CacheConfig.PRODUCTS).invalidate();
+        queryCounter.start();
+
+        service.findById(existingId);
+
+        queryCounter.assertStatements(2);
+    }
+
+    @Test
+    void updateShouldNotRewriteCategoryRowsWhenCategoriesAreUnchanged() {
+        ProductDTO dto = Factory.createProductDTO();
+        dto.setCategories(List.of(new CategoryDTO(1L, null), new CategoryDTO(3L, null)));
+        queryCounter.start();
+
+        service.update(2L, dto, null);
+
+        // product, its categories and the product update; no tb_product_category statements
+        queryCounter.assertStatements(3);
+    }
+
+    @Test
+    void updateShouldOnlyWriteChangedCategoryRows() {
+        ProductDTO dto = Factory.createProductDTO();
+        dto.setCategories(List.of(new CategoryDTO(2L, null), new CategoryDTO(3L, null)));
+        queryCounter.start();
+
+        service.update(2L, dto, null);
+
+        // product, its categories, the added category, one row deleted, one row inserted and the product update
+        queryCounter.assertStatements(6);
+        assertEquals(List.of(2L, 3L), repository.getOne(2L).getCategories().stream().map(x -> x.getId()).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void insertShouldThrowResourceNotFoundExceptionWhenCategoryDoesNotExist() {
+        ProductDTO dto = Factory.createProductDTO();
+        dto.setId(null);
+        dto.getCategories().add(new CategoryDTO(nonExistingId, null));
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            service.insert(dto);
+        });
+    }
+
+    @Test
+    void findAllFilteredShouldReturnProductsOfCategoryMatchingName() {
+        PageRequest pag = PageRequest.of(0, 50, Sort.by("name"));
+
+        Page<ProductDTO> result = service.findAllFiltered(3L, "pc gamer", pag);
+
+        assertFalse(result.isEmpty());
+        assertEquals(result.getNumberOfElements(), result.getTotalElements());
+        assertEquals("PC Gamer", result.getContent().get(0).getName());
+        assertTrue(result.getContent().stream()
+                .allMatch(x -> x.getCategories().stream().anyMatch(c -> c.getId() == 3L)));
+    }
+
+    @Test
+    void findAllFilteredShouldIgnoreCategoryWhenCategoryIdIsNull() {
+        PageRequest pag = PageRequest.of(0, 10, Sort.by("name"));
+
+        Page<ProductDTO> result = service.findAllFiltered(null, "", pag);
+
+        assertEquals(countTotalProducts, result.getTotalElements());
+        assertEquals("Macbook Pro", result.getContent().get(0).getName());
+    }
+
+    @Test
+    void findAllFilteredSlicedShouldOrderProductsWithSameNameById() {
+        List<Long> twins = List.of(5L, 2L, 9L, 4L, 7L);
+        repository.findAllById(twins).forEach(x -> x.setName("Twin"));
+        repository.flush();
+
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            service.findAllFilteredSliced(null, "twin", PageRequest.of(page, 2, Sort.by("name")))
+                    .forEach(x -> ids.add(x.getId()));
+        }
+
+        assertEquals(List.of(2L, 4L, 5L, 7L, 9L), ids);
+    }
+
+    @Test
+    void findAllFilteredShouldMatchWildcardCharactersLiterally() {
+        repository.findById(existingId).get().setName("100% Cotton_Shirt");
+        repository.flush();
+        PageRequest pag = PageRequest.of(0, 10, Sort.by("name"));
+
+        assertEquals(List.of(existingId), service.findAllFiltered(null, "0% cotton_", pag).getContent().stream()
+                .map(ProductDTO::getId).collect(Collectors.toList()));
+        assertEquals(1L, service.findAllFiltered(null, "%", pag).getTotalElements());
+        assertTrue(service.findAllFiltered(null, "_", pag).getContent().stream()
+                .allMatch(x -> x.getName().contains("_")));
+    }
+
+    @Test
+    void findAllFilteredShouldSortByCamelCaseProperty() {
+        Page<ProductDTO> result = service.findAllFiltered(null, "", PageRequest.of(0, 10, Sort.by("imgUrl")));
+
+        assertEquals(10, result.getNumberOfElements());
+    }
+
+    @Test
+    void findAllFilteredShouldThrowInvalidSortExceptionWhenPropertyIsUnknown() {
+        assertThrows(InvalidSortException.class, () ->
+                service.findAllFiltered(null, "", PageRequest.of(0, 10, Sort.by("tb_product.name; --"))));
+    }
+
 }
@@ -1,10 +1,16 @@
 package com.dscatalog.dscatalog.services;
 
+import com.dscatalog.dscatalog.config.CacheConfig;
+import com.dscatalog.dscatalog.dto.CategoryDTO;
 import com.dscatalog.dscatalog.dto.ProductDTO;
+import com.dscatalog.dscatalog.entities.Category;
 import com.dscatalog.dscatalog.entities.Product;
 import com.dscatalog.dscatalog.repositories.CategoryRepository;
 import com.dscatalog.dscatalog.repositories.ProductRepository;
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
 import com.dscatalog.dscatalog.services.exceptions.DataBaseException;
+import com.dscatalog.dscatalog.services.exceptions.PreconditionFailedException;
 import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
 import com.dscatalog.dscatalog.tests.Factory;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +18,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -22,13 +32,17 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,11 +55,18 @@ class ProductServiceTest {
     private  ProductRepository repository;
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private ApplicationEventPublisher publisher;
+    @Spy
+    private TotalCountCache counts = new TotalCountCache("maximumSize=10");
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS);
 
     private long existingId;
     private long nonExistingId;
     private long dependentId;
     private PageImpl<Product> page;
+    private PageImpl<ProductDTO> summaryPage;
     private Product product;
     private ProductDTO dto;
 
@@ -57,12 +78,16 @@ class ProductServiceTest {
         product = Factory.createProduct();
         page = new PageImpl<>(List.of(product));
         dto = Factory.createProductDTO();
+        summaryPage = new PageImpl<>(List.of(dto));
 
         when(repository.findAll((Pageable) any())).thenReturn(page);
+        when(repository.findAllSummaries(any())).thenReturn(summaryPage);
         when(repository.save(any())).thenReturn(product);
+        when(repository.saveAndFlush(any())).thenReturn(product);
         when(repository.findById(existingId)).thenReturn(Optional.of(product));
         when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
         when(repository.getOne(existingId)).thenReturn(product);
+        when(categoryRepository.findAllById(Set.of(2L))).thenReturn(List.of(new Category(2L, "Eletronics")));
 
         doNothing().when(repository).deleteById(existingId);
         doThrow(EmptyResultDataAccessException.class).when(repository).deleteById(nonExistingId);
@@ -79,22 +104,70 @@ class ProductServiceTest {
 
     }
 
+    @Test
+    void insertShouldResolveAllCategoriesWithOneQuery() {
+        service.insert(dto);
+
+        verify(categoryRepository).findAllById(Set.of(2L));
+        verify(categoryRepository, never()).getOne(any());
+    }
+
+    @Test
+    void insertShouldThrowResourceNotFoundExceptionWhenCategoryDoesNotExist() {
+        dto.getCategories().add(new CategoryDTO(new Category(1000L, "Missing")));
+        when(categoryRepository.findAllById(Set.of(2L, 1000L))).thenReturn(List.of(new Category(2L, "Eletronics")));
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            service.insert(dto);
+        });
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void updateShouldNotQueryCategoriesWhenTheyAreUnchanged() {
+        service.update(existingId, dto, null);
+
+        verify(categoryRepository, never()).findAllById(any());
+        assertEquals(Set.of(new Category(2L, null)), product.getCategories());
+    }
+
+    @Test
+    void updateShouldOnlyAddAndRemoveChangedCategories() {
+        Category kept = new Category(2L, "Eletronics");
+        product.getCategories().add(new Category(3L, "Computers"));
+        dto.getCategories().add(new CategoryDTO(new Category(1L, "Books")));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(new Category(1L, "Books")));
+
+        service.update(existingId, dto, null);
+
+        verify(categoryRepository).findAllById(Set.of(1L));
+        assertEquals(Set.of(kept, new Category(1L, null)), product.getCategories());
+    }
+
     @Test
     void updateShouldReturnResourceNotFoundExceptionWhenNonExistingId() {
         assertThrows(ResourceNotFoundException.class, () -> {
-            service.update(nonExistingId, dto);
+            service.update(nonExistingId, dto, null);
         });
     }
 
     @Test
     void updateShouldReturnProductWhenExistingId() {
-        ProductDTO result = service.update(existingId, dto);
+        ProductDTO result = service.update(existingId, dto, null);
 
         assertNotNull(result);
-        verify(repository).save(product);
+        verify(repository).saveAndFlush(product);
 
     }
 
+    @Test
+    void updateShouldThrowPreconditionFailedExceptionWhenVersionIsStale() {
+        assertThrows(PreconditionFailedException.class, () -> {
+            service.update(existingId, dto, Set.of(99));
+        });
+        verify(repository, never()).saveAndFlush(any());
+    }
+
     @Test
     void findByIdShouldReturnResourceNotFoundExceptionWhenNonExistingId() {
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -113,13 +186,27 @@ class ProductServiceTest {
 
     }
 
+    @Test
+    void findByIdShouldNotCacheProductWhenItChangedDuringTheLoad() {
+        when(repository.findById(existingId)).thenAnswer(invocation -> {
+            service.onProductChanged(new ProductChangedEvent(existingId, ChangeType.UPDATE));
+            return Optional.of(product);
+        });
+
+        service.findById(existingId);
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(existingId));
+    }
+
     @Test
     void findAllPagedShouldReturnPage() {
         Pageable pageable = PageRequest.of(0,10);
         Page<ProductDTO> result = service.findAllPaged(pageable);
 
         assertNotNull(result);
-        verify(repository).findAll(pageable);
+        verify(repository).findAllSummaries(pageable);
+        /* a first page shorter than the page size is its own total */
+        verify(repository, never()).count();
 
     }
 
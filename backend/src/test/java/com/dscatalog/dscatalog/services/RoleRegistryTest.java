@@ -0,0 +1,74 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.entities.Role;
+import com.dscatalog.dscatalog.repositories.RoleRepository;
+import com.dscatalog.dscatalog.services.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class RoleRegistryTest {
+
+    @InjectMocks
+    private RoleRegistry registry;
+
+    @Mock
+    private RoleRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll()).thenReturn(List.of(new Role(1L, "ROLE_OPERATOR"), new Role(2L, "ROLE_ADMIN")));
+        registry.refresh();
+    }
+
+    @Test
+    void toDtoShouldReturnRoleWithoutQueryingWhenIdIsKnown() {
+        assertEquals("ROLE_ADMIN", registry.toDto(2L).getAuthority());
+
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void getShouldRefreshOnceWhenIdIsUnknown() {
+        when(repository.findAll()).thenReturn(List.of(new Role(1L, "ROLE_OPERATOR"), new Role(2L, "ROLE_ADMIN"),
+                new Role(3L, "ROLE_AUDITOR")));
+
+        assertEquals("ROLE_AUDITOR", registry.get(3L).getAuthority());
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    void getShouldThrowResourceNotFoundExceptionWhenIdDoesNotExistAfterRefresh() {
+        assertThrows(ResourceNotFoundException.class, () -> registry.get(99L));
+    }
+
+    @Test
+    void getShouldNotRefreshAgainWithinIntervalWhenSameIdIsUnknown() {
+        assertThrows(ResourceNotFoundException.class, () -> registry.get(99L));
+        assertThrows(ResourceNotFoundException.class, () -> registry.get(99L));
+
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    void getShouldReturnNewRoleWhenAnotherIdWasUnknownWithinInterval() {
+        assertThrows(ResourceNotFoundException.class, () -> registry.get(99L));
+        when(repository.findAll()).thenReturn(List.of(new Role(1L, "ROLE_OPERATOR"), new Role(2L, "ROLE_ADMIN"),
+                new Role(3L, "ROLE_AUDITOR")));
+
+        assertEquals("ROLE_AUDITOR", registry.get(3L).getAuthority());
+        verify(repository, times(3)).findAll();
+    }
+}
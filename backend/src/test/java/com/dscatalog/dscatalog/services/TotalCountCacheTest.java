@@ -0,0 +1,131 @@
+package com.dscatalog.dscatalog.services;
+
+import com.dscatalog.dscatalog.services.events.ChangeType;
+import com.dscatalog.dscatalog.services.events.ProductChangedEvent;
+import com.dscatalog.dscatalog.services.events.UserChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TotalCountCacheTest {
+
+    private static final String FILTERED = TotalCountCache.key(TotalCountCache.PRODUCTS, "categoryId", 1L, "name", "PC");
+
+    private TotalCountCache counts;
+    private AtomicLong queries;
+
+    @BeforeEach
+    void setUp() {
+        counts = new TotalCountCache("maximumSize=100");
+        queries = new AtomicLong();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void keyShouldListFilterInGivenOrder() {
+        assertEquals("products?categoryId=1&name=PC", FILTERED);
+        assertEquals("users", TotalCountCache.key(TotalCountCache.USERS));
+    }
+
+    @Test
+    void getShouldCountOnlyOnce() {
+        assertEquals(25L, count(TotalCountCache.PRODUCTS, 25L));
+        assertEquals(25L, count(TotalCountCache.PRODUCTS, 99L));
+
+        assertEquals(1L, queries.get());
+    }
+
+    @Test
+    void committedInsertShouldAdjustTotalAndDropFilteredTotals() {
+        count(TotalCountCache.PRODUCTS, 25L);
+        count(FILTERED, 3L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        counts.onProductChanged(new ProductChangedEvent(26L, ChangeType.INSERT));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(26L, count(TotalCountCache.PRODUCTS, 99L));
+        assertEquals(4L, count(FILTERED, 4L));
+        assertEquals(3L, queries.get());
+    }
+
+    @Test
+    void rolledBackDeleteShouldKeepTotals() {
+        count(TotalCountCache.USERS, 5L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        counts.onUserChanged(new UserChangedEvent(1L, ChangeType.DELETE));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(5L, count(TotalCountCache.USERS, 99L));
+        assertEquals(1L, queries.get());
+    }
+
+    @Test
+    void totalCountedWhileWriteCommitsShouldNotBeStored() {
+        long total = counts.get(TotalCountCache.PRODUCTS, () -> {
+            queries.incrementAndGet();
+            /* another request commits an insert while this one is counting */
+            counts.onProductChanged(new ProductChangedEvent(26L, ChangeType.INSERT));
+            return 25L;
+        });
+
+        assertEquals(25L, total);
+        assertEquals(26L, count(TotalCountCache.PRODUCTS, 26L));
+        assertEquals(2L, queries.get());
+    }
+
+    @Test
+    void totalStoredWhileWriteInFlightShouldBeDroppedOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        counts.onProductChanged(new ProductChangedEvent(26L, ChangeType.INSERT));
+        TransactionSynchronization write = TransactionSynchronizationManager.getSynchronizations().get(0);
+        TransactionSynchronizationManager.clearSynchronization();
+        /* counted after the insert started, so the new row may or may not be in it */
+        count(TotalCountCache.PRODUCTS, 25L);
+
+        /* an unrelated write settling first leaves it alone */
+        TransactionSynchronizationManager.initSynchronization();
+        counts.onProductChanged(new ProductChangedEvent(2L, ChangeType.UPDATE));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(25L, count(TotalCountCache.PRODUCTS, 99L));
+        write.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(26L, count(TotalCountCache.PRODUCTS, 26L));
+        assertEquals(2L, queries.get());
+    }
+
+    @Test
+    void writeOutsideTransactionShouldDropTotals() {
+        count(TotalCountCache.PRODUCTS, 25L);
+
+        counts.onProductChanged(new ProductChangedEvent(26L, ChangeType.INSERT));
+
+        assertEquals(26L, count(TotalCountCache.PRODUCTS, 26L));
+        assertEquals(2L, queries.get());
+    }
+
+    private long count(String key, long actual) {
+        return counts.get(key, () -> {
+            queries.incrementAndGet();
+            return actual;
+        });
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(x -> x.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
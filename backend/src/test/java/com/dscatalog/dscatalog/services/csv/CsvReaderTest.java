@@ -0,0 +1,39 @@
+package com.dscatalog.dscatalog.services.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readRecordShouldSplitPlainFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("name,price\nPhone,800.0\n"));
+
+        assertEquals(List.of("name", "price"), reader.readRecord());
+        assertEquals(List.of("Phone", "800.0"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecordShouldHandleQuotedCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"Smart, TV\",\"the \"\"best\"\"\nreally\",\r\nnext,\n"));
+
+        assertEquals(List.of("Smart, TV", "the \"best\"\nreally", ""), reader.readRecord());
+        assertEquals(List.of("next", ""), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecordShouldThrowWhenQuoteIsNotClosed() {
+        CsvReader reader = new CsvReader(new StringReader("\"open,field\n"));
+
+        assertThrows(IOException.class, reader::readRecord);
+    }
+}
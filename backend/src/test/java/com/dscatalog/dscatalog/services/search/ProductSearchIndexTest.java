@@ -0,0 +1,62 @@
+package com.dscatalog.dscatalog.services.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(1L, "Smart TV", "Televisão com controle remoto");
+        index.put(2L, "Controle Remoto", "Acessório para Smart TV");
+        index.put(3L, "Livro de Eletrônicos", "Guia completo");
+    }
+
+    @Test
+    void tokenizeShouldLowerCaseAndFoldAccents() {
+        assertEquals(List.of("eletronicos", "e", "informatica"), ProductSearchIndex.tokenize("Eletrônicos e Informática!"));
+    }
+
+    @Test
+    void searchShouldMatchIgnoringAccents() {
+        assertEquals(List.of(3L), index.search("eletronicos"));
+        assertEquals(List.of(1L), index.search("televisao"));
+    }
+
+    @Test
+    void searchShouldRankNameMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(2L, 1L), index.search("controle"));
+        assertEquals(List.of(1L, 2L), index.search("smart tv"));
+    }
+
+    @Test
+    void searchShouldReturnEmptyListWhenNothingMatches() {
+        assertTrue(index.search("notebook").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    @Test
+    void putShouldReplacePreviousTermsOfSameProduct() {
+        index.put(3L, "Notebook", "Guia completo");
+
+        assertTrue(index.search("eletronicos").isEmpty());
+        assertEquals(List.of(3L), index.search("notebook"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void removeShouldDropProductFromResults() {
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.search("smart"));
+        assertEquals(2, index.size());
+    }
+}
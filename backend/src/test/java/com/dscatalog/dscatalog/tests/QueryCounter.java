@@ -0,0 +1,71 @@
+package com.dscatalog.dscatalog.tests;
+
+import com.dscatalog.dscatalog.services.TotalCountCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Records every SQL statement Hibernate prepares between start() and assertStatements(), on any thread,
+ * so query budgets can be asserted for service calls as well as for async HTTP handlers.
+ * A JDBC batch is prepared once and therefore counts as one statement.
+ * start() empties the Hibernate second-level cache and the cached listing totals first, so budgets do not depend
+ * on what earlier tests loaded; startWarm() keeps them, for asserting what the caches save.
+ * The change feed relay polls the outbox in the background, so its thread is left out.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    /* lazy, because the EntityManagerFactory is built with this inspector */
+    @Autowired
+    @Lazy
+    private transient EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Lazy
+    private transient TotalCountCache totalCountCache;
+
+    @Override
+    public String inspect(String sql) {
+        if (recording && !Thread.currentThread().getName().startsWith("change-feed-")) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public void start() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        totalCountCache.invalidateAll();
+        startWarm();
+    }
+
+    public void startWarm() {
+        statements.clear();
+        recording = true;
+    }
+
+    public List<String> stop() {
+        recording = false;
+        return new ArrayList<>(statements);
+    }
+
+    /*
+     * Stops recording and fails with the recorded SQL when the count differs from the budget.
+     */
+    public void assertStatements(int expected) {
+        List<String> recorded = stop();
+        Assertions.assertEquals(expected, recorded.size(), () -> "Expected " + expected + " SQL statements but "
+                + recorded.size() + " were issued:\n  " + String.join("\n  ", recorded));
+    }
+}
@@ -0,0 +1,23 @@
+package com.dscatalog.dscatalog.tests;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Picked up by component scanning in every @SpringBootTest, so all of them share one application context
+ * and any test can autowire the QueryCounter.
+ */
+@Configuration
+public class QueryCounterConfig {
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", queryCounter);
+    }
+}